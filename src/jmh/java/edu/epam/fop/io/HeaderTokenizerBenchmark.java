@@ -0,0 +1,83 @@
+package edu.epam.fop.io;
+
+import edu.epam.fop.io.bench.LicenseTreeGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tokenizer cost without any I/O, next to the parser's real rejection path. Watch {@code gc.alloc.rate.norm}:
+ * a valid header only allocates its four values and the header object. Rejecting a non-license file opens it,
+ * so it pays for the {@code FileReader} and its byte buffer even though the tokenizer adds nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderTokenizerBenchmark {
+
+  @Param({"ORDERED", "SHUFFLED"})
+  public LicenseTreeGenerator.Shape shape;
+
+  private char[] header;
+  private int[] lineEnds;
+  private final HeaderParser parser = new HeaderParser(HeaderParser.DEFAULT_MAX_HEADER_CHARS,
+      HeaderParser.DEFAULT_MAX_HEADER_LINES);
+  private File plain;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    String text = LicenseTreeGenerator.header(shape, true, new Random(42));
+    text = text.substring(0, text.indexOf("---", 3) + 3);
+    header = text.toCharArray();
+    lineEnds = text.lines().mapToInt(String::length).toArray();
+    plain = LicenseTreeGenerator.writePlainFile(Files.createTempFile("plain", ".bin"), 4096).toFile();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    plain.delete();
+  }
+
+  @Benchmark
+  public LicenseHeader tokenizeHeader() {
+    LicenseHeader result = new LicenseHeader();
+    int pos = 0;
+    for (int length : lineEnds) {
+      int end = pos + length;
+      if (HeaderTokenizer.isMarker(header, pos, end)) {
+        if (result.isStarted()) {
+          result.terminate();
+        } else {
+          result.start();
+        }
+      } else {
+        HeaderTokenizer.tokenize(header, pos, end, result);
+      }
+      pos = end + 1;
+    }
+    return result;
+  }
+
+  @Benchmark
+  public LicenseHeader rejectNonLicenseFile() {
+    return parser.read(plain);
+  }
+}
@@ -0,0 +1,66 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Query cost of the license index. Lookups must not depend on the number of records, only on the
+ * size of the answer; the queries here ask for a rare name/issuer and a narrow expiry window.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LicenseIndexBenchmark {
+
+  @Param({"100000", "1000000"})
+  public int licenses;
+
+  private LicenseIndex index;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    LicenseIndex.Builder builder = new LicenseIndex.Builder();
+    for (int i = 0; i < licenses; i++) {
+      int year = 2000 + random.nextInt(40);
+      String date = year + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10);
+      builder.add(new License(new File("vendor/lib" + i % 1000, "library_" + i), "License " + random.nextInt(500),
+          "Issuer " + random.nextInt(5000), date, random.nextInt(4) == 0 ? null : (year + 3) + date.substring(4)));
+    }
+    builder.add(new License(new File("vendor", "rare"), "Rare", "Rare Inc.", "2020-01-01", "2031-01-01"));
+    index = builder.build();
+  }
+
+  @Benchmark
+  public License byName() {
+    return index.withName("Rare").get(0);
+  }
+
+  @Benchmark
+  public License byIssuer() {
+    return index.issuedBy("Rare Inc.").get(0);
+  }
+
+  @Benchmark
+  public int expiryWindow() {
+    List<License> expiring = index.expiringBetween(LocalDate.of(2030, 3, 15), LocalDate.of(2030, 3, 16));
+    return expiring.size();
+  }
+}
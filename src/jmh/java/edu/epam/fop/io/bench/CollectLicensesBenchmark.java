@@ -0,0 +1,68 @@
+package edu.epam.fop.io.bench;
+
+import edu.epam.fop.io.LicenseReader;
+import edu.epam.fop.io.ScanOptions;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full collectLicenses runs over generated trees. Trees are generated once into
+ * {@code target/bench-trees} and reused by later runs, the 1M files one takes a while to create.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectLicensesBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int files;
+
+  @Param({"1", "3", "6"})
+  public int depth;
+
+  @Param({"1", "4"})
+  public int workers;
+
+  private File root;
+  private File output;
+  private long treeBytes;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Path base = Path.of(System.getProperty("bench.trees", "target/bench-trees"));
+    root = LicenseTreeGenerator.tree(base, files, depth).toFile();
+    output = base.resolve("output-" + files + "-" + depth + "-" + workers).toFile();
+    treeBytes = LicenseTreeGenerator.totalSize(root.toPath());
+  }
+
+  @Benchmark
+  public void collectLicenses(TreeCounters counters) {
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(workers));
+    counters.files += files;
+    counters.bytes += treeBytes;
+  }
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class TreeCounters {
+    public long files;
+    public long bytes;
+  }
+}
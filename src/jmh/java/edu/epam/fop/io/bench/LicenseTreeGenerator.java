@@ -0,0 +1,109 @@
+package edu.epam.fop.io.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic inputs for the benchmarks, shaped after the case_0x test fixtures: headers with the
+ * properties in README order or shuffled, with or without {@code Expires on}, mixed with plain files.
+ */
+public final class LicenseTreeGenerator {
+
+  public enum Shape {
+    ORDERED,
+    SHUFFLED
+  }
+
+  private static final String[] LICENSES = {"DDF", "GMU", "NIT", "JIJKAP", "Cool", "Fine", "TTL", "Personal"};
+  private static final String[] ISSUERS = {"Ogachi Production", "GMU Inc.", "NIT University",
+      "Software Crusaders", "Evil Corp.", "Good Corp.", "Hacker Net", "Me"};
+  private static final String COMPLETE_MARKER = ".complete";
+
+  private LicenseTreeGenerator() {
+  }
+
+  public static String header(Shape shape, boolean expires, Random random) {
+    List<String> properties = new ArrayList<>();
+    properties.add("License: " + LICENSES[random.nextInt(LICENSES.length)]);
+    properties.add("Issued by: " + ISSUERS[random.nextInt(ISSUERS.length)]);
+    properties.add("Issued on: " + date(random, 1980));
+    if (expires) {
+      properties.add("Expires on: " + date(random, 2030));
+    }
+    if (shape == Shape.SHUFFLED) {
+      Collections.shuffle(properties, random);
+    }
+    return "---\n" + String.join("\n", properties) + "\n---\n\nLibrary description...\n";
+  }
+
+  public static Path writeLicense(Path file, Shape shape, boolean expires, long seed) throws IOException {
+    return Files.writeString(file, header(shape, expires, new Random(seed)));
+  }
+
+  // A file which is not a license, padded up to size bytes without a single line break
+  public static Path writePlainFile(Path file, long size) throws IOException {
+    byte[] chunk = new byte[64 * 1024];
+    Arrays.fill(chunk, (byte) 'x');
+    try (var out = Files.newOutputStream(file)) {
+      for (long left = size; left > 0; left -= chunk.length) {
+        out.write(chunk, 0, (int) Math.min(left, chunk.length));
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Generates (or reuses, when a previous run completed it) a tree of {@code files} files spread over
+   * directories {@code depth} levels deep. Every tenth file is not a license, like in case_03.
+   */
+  public static Path tree(Path base, int files, int depth) {
+    Path root = base.resolve("tree-" + files + "-" + depth);
+    if (Files.exists(root.resolve(COMPLETE_MARKER))) {
+      return root.resolve("input");
+    }
+    try {
+      Files.createDirectories(root);
+      Path input = root.resolve("input");
+      Random random = new Random(files * 31L + depth);
+      int fanout = depth == 0 ? 1 : Math.max(2, (int) Math.ceil(Math.pow(files / 100.0, 1.0 / depth)));
+      for (int i = 0; i < files; i++) {
+        Path dir = input;
+        int bucket = i / 100;
+        for (int level = 0; level < depth; level++) {
+          dir = dir.resolve("d" + bucket % fanout);
+          bucket /= fanout;
+        }
+        Files.createDirectories(dir);
+        Path file = dir.resolve("library_" + i);
+        if (i % 10 == 9) {
+          Files.writeString(file, "hello world!");
+        } else {
+          Files.writeString(file, header(Shape.values()[random.nextInt(2)], random.nextBoolean(), random));
+        }
+      }
+      Files.createFile(root.resolve(COMPLETE_MARKER));
+      return input;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static long totalSize(Path root) {
+    try (var paths = Files.walk(root)) {
+      return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String date(Random random, int fromYear) {
+    return String.format("%04d-%02d-%02d", fromYear + random.nextInt(40), 1 + random.nextInt(12), 1 + random.nextInt(28));
+  }
+}
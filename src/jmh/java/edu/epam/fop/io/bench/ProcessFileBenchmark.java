@@ -0,0 +1,63 @@
+package edu.epam.fop.io.bench;
+
+import edu.epam.fop.io.ProcessFile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning one license file into its output line, per header shape.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessFileBenchmark {
+
+  @Param({"ORDERED", "SHUFFLED"})
+  public LicenseTreeGenerator.Shape shape;
+
+  @Param({"true", "false"})
+  public boolean expires;
+
+  private final ProcessFile processor = new ProcessFile();
+  private File license;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Path dir = Files.createTempDirectory("process-file-bench");
+    license = LicenseTreeGenerator.writeLicense(dir.resolve("library"), shape, expires, 42).toFile();
+    license.deleteOnExit();
+    dir.toFile().deleteOnExit();
+  }
+
+  @Benchmark
+  public String processFile(BytesRead bytes) {
+    bytes.bytes += license.length();
+    return processor.processFile(license);
+  }
+
+  // Reported by JMH as a rate next to ops/s
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class BytesRead {
+    public long bytes;
+  }
+}
@@ -0,0 +1,57 @@
+package edu.epam.fop.io.bench;
+
+import edu.epam.fop.io.ProcessFile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recognizing that a big file is not a license. Should not depend on the file size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+  @Param({"1048576", "67108864"})
+  public long size;
+
+  private final ProcessFile processor = new ProcessFile();
+  private File plain;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Path dir = Files.createTempDirectory("rejection-bench");
+    plain = LicenseTreeGenerator.writePlainFile(dir.resolve("library.bin"), size).toFile();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    File dir = plain.getParentFile();
+    plain.delete();
+    dir.delete();
+  }
+
+  @Benchmark
+  public String rejectNonLicense() {
+    return processor.processFileOrNull(plain);
+  }
+}
@@ -0,0 +1,212 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saved progress of a resumable scan: where the walk was, as the names from the root down to the last file
+ * done, and how long the output was at that point, in characters and in bytes. The walk is sorted, so those
+ * names are enough to find the place again, and a checkpoint costs as much as the depth of the tree, not
+ * its size. Lines written after the last checkpoint are cut off on resume and written again.
+ *
+ * <p>The file is written next to its final place and swapped in, and ends with a checksum trailer like the
+ * license cache; a checkpoint which does not match it, or belongs to another root or output, is ignored.
+ * Roots and outputs are compared by absolute path.
+ */
+final class Checkpoint {
+    private static final String MAGIC = "#license-checkpoint v1";
+    private static final String TRAILER = "#end ";
+
+    private final String root;
+    private final String output;
+    private final long chars;
+    private final long bytes;
+    private final long files;
+    private final List<String> position;
+
+    private Checkpoint(String root, String output, long chars, long bytes, long files, List<String> position) {
+        this.root = root;
+        this.output = output;
+        this.chars = chars;
+        this.bytes = bytes;
+        this.files = files;
+        this.position = position;
+    }
+
+    // The saved checkpoint of this root and output with the output cut back to it, null to start from scratch
+    static Checkpoint resumable(File root, File outputFile, ScanOptions options) {
+        Checkpoint saved = read(options.getCheckpointFile());
+        if (saved == null || !saved.root.equals(root.getAbsolutePath())
+                || !saved.output.equals(outputFile.getAbsolutePath()) || !saved.cut(outputFile)) {
+            return null;
+        }
+        return saved;
+    }
+
+    // Scans into a sink which appends to what resumed kept of the output, or into an empty one
+    static void collectLicenses(File root, File outputFile, OutputSink sink, ScanOptions options,
+                                ScanSession session, Checkpoint resumed) throws IOException {
+        File file = options.getCheckpointFile();
+        String rootPath = root.getAbsolutePath();
+        String outputPath = outputFile.getAbsolutePath();
+        long interval = Math.min(options.getCheckpointMillis(), Long.MAX_VALUE / 1_000_000) * 1_000_000;
+        try (FileWalker walker = new FileWalker(root, options, session)) {
+            long chars = 0;
+            long files = 0;
+            if (resumed != null) {
+                walker.skipPast(resumed.position);
+                chars = resumed.chars;
+                files = resumed.files;
+            }
+            int pending = 0;
+            long due = System.nanoTime() + interval;
+            File item;
+            while ((item = walker.next()) != null) {
+                License license = session.process(item, walker.isTopLevel());
+                if (license != null) {
+                    sink.write(license);
+                }
+                files++;
+                if (++pending >= options.getCheckpointFiles() || System.nanoTime() - due >= 0) {
+                    // Everything up to the position has to be on disk before the checkpoint says so
+                    sink.flush();
+                    new Checkpoint(rootPath, outputPath, chars + sink.getWritten(), outputFile.length(), files,
+                            walker.position()).write(file);
+                    pending = 0;
+                    due = System.nanoTime() + interval;
+                }
+            }
+        }
+    }
+
+    // Files walked before the checkpoint, this run included
+    long getFiles() {
+        return files;
+    }
+
+    // Drops whatever was written after the checkpoint, false if the output lost part of what it had
+    private boolean cut(File outputFile) {
+        long length = outputFile.length();
+        if (length == bytes) {
+            return true;
+        }
+        if (length < bytes) {
+            return false;
+        }
+        File tmp = new File(outputFile.getPath() + ".tmp");
+        long left = chars;
+        try (BufferedReader br = new BufferedReader(new FileReader(outputFile));
+             BufferedWriter bw = new BufferedWriter(new FileWriter(tmp))) {
+            char[] buf = new char[8192];
+            int n;
+            while (left > 0 && (n = br.read(buf, 0, (int) Math.min(left, buf.length))) > 0) {
+                bw.write(buf, 0, n);
+                left -= n;
+            }
+        } catch (IOException e) {
+            left = -1;
+        }
+        if (left != 0 || !OutputTarget.replace(tmp, outputFile)) {
+            tmp.delete();
+            return false;
+        }
+        return outputFile.length() == bytes;
+    }
+
+    private void write(File file) {
+        List<String> lines = new ArrayList<>();
+        lines.add(LicenseCache.escape(root));
+        lines.add(LicenseCache.escape(output));
+        lines.add(chars + "\t" + bytes + "\t" + files + "\t" + position.size());
+        for (String name : position) {
+            lines.add(LicenseCache.escape(name));
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        long checksum = LicenseCache.FNV_OFFSET;
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(tmp))) {
+            bw.write(MAGIC);
+            bw.newLine();
+            for (String line : lines) {
+                checksum = LicenseCache.hash(checksum, line);
+                bw.write(line);
+                bw.newLine();
+            }
+            bw.write(TRAILER + Long.toHexString(checksum));
+            bw.newLine();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write checkpoint: " + file.getAbsolutePath());
+        }
+        if (!OutputTarget.replace(tmp, file)) {
+            throw new IllegalArgumentException("Could not replace checkpoint: " + file.getAbsolutePath());
+        }
+    }
+
+    // The saved checkpoint, null if there is none or it is damaged
+    static Checkpoint read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>();
+        long checksum = LicenseCache.FNV_OFFSET;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            if (!MAGIC.equals(br.readLine())) {
+                return null;
+            }
+            String line;
+            while ((line = br.readLine()) != null && !line.startsWith(TRAILER)) {
+                checksum = LicenseCache.hash(checksum, line);
+                lines.add(line);
+            }
+            if (line == null || !line.equals(TRAILER + Long.toHexString(checksum)) || br.readLine() != null) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return parse(lines);
+    }
+
+    private static Checkpoint parse(List<String> lines) {
+        if (lines.size() < 3) {
+            return null;
+        }
+        String[] counts = lines.get(2).split("\t", -1);
+        long[] values = new long[4];
+        if (counts.length != values.length) {
+            return null;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!isCount(counts[i])) {
+                return null;
+            }
+            values[i] = Long.parseLong(counts[i]);
+        }
+        if (values[3] != lines.size() - 3) {
+            return null;
+        }
+        List<String> position = new ArrayList<>();
+        for (String name : lines.subList(3, lines.size())) {
+            position.add(LicenseCache.unescape(name));
+        }
+        return new Checkpoint(LicenseCache.unescape(lines.get(0)), LicenseCache.unescape(lines.get(1)),
+                values[0], values[1], values[2], position);
+    }
+
+    private static boolean isCount(String s) {
+        if (s.isEmpty() || s.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * RFC 4180 CSV output: a header row, then one record per license with CRLF line ends. Fields holding a comma,
+ * a quote or a line break are quoted with their quotes doubled, an unlimited license has an empty expiry.
+ */
+final class CsvFormatter implements LicenseFormatter {
+    static final String HEADER = "path,license,issued_by,issued_on,expires_on";
+    private static final String CRLF = "\r\n";
+
+    private final RelativePath paths;
+
+    CsvFormatter(File root) {
+        this.paths = new RelativePath(root);
+    }
+
+    @Override
+    public LicenseFormatter forScan(File root) {
+        return new CsvFormatter(root);
+    }
+
+    @Override
+    public void start(StringBuilder out) {
+        out.append(HEADER).append(CRLF);
+    }
+
+    // Ordered by path, the way a tree is listed
+    @Override
+    public String sortKey(License license, String record) {
+        return paths.of(license.getFile());
+    }
+
+    @Override
+    public void format(License license, StringBuilder out) {
+        field(paths.of(license.getFile()), out);
+        out.append(',');
+        field(license.getName(), out);
+        out.append(',');
+        field(license.getIssuedBy(), out);
+        out.append(',').append(license.getIssuedOn()).append(',');
+        if (!license.isUnlimited()) {
+            out.append(license.getExpiresOn());
+        }
+        out.append(CRLF);
+    }
+
+    static void field(String value, StringBuilder out) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,27 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * One problem found by a scan: the file or directory, what is wrong with it and where.
+ * Lines are counted from 1 from the top of the file, 0 means the problem is not tied to a line.
+ */
+public record Diagnostic(File file, Type type, int line, String message) {
+
+    public enum Type {
+        // No header at all, only an error where the scan expects every file to be a license
+        NOT_A_LICENSE,
+        // Header which is never closed
+        INVALID_HEADER,
+        MISSING_PROPERTY,
+        INVALID_DATE,
+        HEADER_TOO_LARGE,
+        READ_ERROR,
+        UNREADABLE_DIRECTORY
+    }
+
+    @Override
+    public String toString() {
+        return file.getPath() + (line > 0 ? ":" + line : "") + ": " + type + ": " + message;
+    }
+}
@@ -0,0 +1,38 @@
+package edu.epam.fop.io;
+
+/**
+ * What a scan does with files it can't use. Every problem ends up in the {@link ScanReport},
+ * the policy decides whether the scan goes on after it.
+ */
+public final class ErrorPolicy {
+    // The classic behaviour: invalid files directly in root are skipped, anything below stops the scan
+    public static final ErrorPolicy FAIL_FAST = new ErrorPolicy(-1);
+    // Skips every invalid file and unusable directory, files without a header are not errors
+    public static final ErrorPolicy COLLECT = new ErrorPolicy(Integer.MAX_VALUE);
+
+    private final int maxErrors;
+
+    private ErrorPolicy(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    // Like COLLECT, but the scan stops once more than maxErrors problems have been found
+    public static ErrorPolicy threshold(int maxErrors) {
+        if (maxErrors < 0)
+            throw new IllegalArgumentException("Max errors cant be negative: " + maxErrors);
+        return new ErrorPolicy(maxErrors);
+    }
+
+    boolean isFailFast() {
+        return maxErrors < 0;
+    }
+
+    int getMaxErrors() {
+        return maxErrors;
+    }
+
+    @Override
+    public String toString() {
+        return isFailFast() ? "FAIL_FAST" : maxErrors == Integer.MAX_VALUE ? "COLLECT" : "threshold(" + maxErrors + ")";
+    }
+}
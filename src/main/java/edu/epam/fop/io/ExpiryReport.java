@@ -0,0 +1,182 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Compliance view of a scan: every license is classified against a reference date as it is found, and
+ * only the counts and the top K licenses of each dated class are kept, in bounded heaps. A report over
+ * any number of files therefore needs a single streaming pass and memory for 3 * K licenses.
+ *
+ * <p>Fill it during a scan with {@link ScanOptions#expiryReport(ExpiryReport)}, or with
+ * {@link LicenseReader#reportExpiry(File, File, ScanOptions, ExpiryReport)} which scans without writing
+ * the license list. Safe to share between threads.
+ */
+public final class ExpiryReport {
+
+    public enum Status {
+        // Expires after the window
+        ACTIVE,
+        // Expires within the window, the reference date included
+        EXPIRING,
+        // Expired before the reference date
+        EXPIRED,
+        UNLIMITED
+    }
+
+    // Soonest expiry first, then by path so equal dates give the same report every time
+    private static final Comparator<License> SOONEST = Comparator.comparingLong(License::getExpiresOnEpochDay)
+            .thenComparing(license -> license.getFile().getPath());
+    private static final Comparator<License> LATEST = SOONEST.reversed();
+
+    private final LocalDate asOf;
+    private final long today;
+    private final int windowDays;
+    private final int topK;
+
+    // All the state below is guarded by this
+    private final long[] counts = new long[Status.values().length];
+    // Each heap keeps the K best licenses of its class with the worst of them on top
+    private final PriorityQueue<License> expiring;
+    private final PriorityQueue<License> expired;
+    private final PriorityQueue<License> active;
+
+    public ExpiryReport(LocalDate asOf, int windowDays, int topK) {
+        if (asOf == null)
+            throw new IllegalArgumentException("Date cant be null!");
+        if (windowDays < 0)
+            throw new IllegalArgumentException("Window cant be negative: " + windowDays);
+        if (topK < 1)
+            throw new IllegalArgumentException("Top K must be positive: " + topK);
+        this.asOf = asOf;
+        this.today = asOf.toEpochDay();
+        this.windowDays = windowDays;
+        this.topK = topK;
+        this.expiring = new PriorityQueue<>(topK + 1, LATEST);
+        this.expired = new PriorityQueue<>(topK + 1, SOONEST);
+        this.active = new PriorityQueue<>(topK + 1, LATEST);
+    }
+
+    public Status classify(License license) {
+        if (license.isUnlimited()) {
+            return Status.UNLIMITED;
+        }
+        long expires = license.getExpiresOnEpochDay();
+        if (expires < today) {
+            return Status.EXPIRED;
+        }
+        return expires - today <= windowDays ? Status.EXPIRING : Status.ACTIVE;
+    }
+
+    public synchronized void add(License license) {
+        Status status = classify(license);
+        counts[status.ordinal()]++;
+        switch (status) {
+            case EXPIRING -> keep(expiring, license);
+            case EXPIRED -> keep(expired, license);
+            case ACTIVE -> keep(active, license);
+            default -> {
+            }
+        }
+    }
+
+    private void keep(PriorityQueue<License> heap, License license) {
+        heap.add(license);
+        if (heap.size() > topK) {
+            heap.poll();
+        }
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    public synchronized long getCount(Status status) {
+        return counts[status.ordinal()];
+    }
+
+    public synchronized Map<Status, Long> getCounts() {
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            byStatus.put(status, counts[status.ordinal()]);
+        }
+        return byStatus;
+    }
+
+    // Up to K licenses expiring within the window, soonest first
+    public synchronized List<License> getExpiringSoonest() {
+        return sorted(expiring, SOONEST);
+    }
+
+    // Up to K expired licenses, the most recently expired first
+    public synchronized List<License> getRecentlyExpired() {
+        return sorted(expired, LATEST);
+    }
+
+    // Up to K licenses expiring after the window, soonest first
+    public synchronized List<License> getNextToExpire() {
+        return sorted(active, SOONEST);
+    }
+
+    private static List<License> sorted(PriorityQueue<License> heap, Comparator<License> order) {
+        List<License> licenses = new ArrayList<>(heap);
+        licenses.sort(order);
+        return licenses;
+    }
+
+    // Days from the reference date to the expiry, negative once expired
+    public long daysLeft(License license) {
+        return license.getExpiresOnEpochDay() - today;
+    }
+
+    /**
+     * Writes the counts and the top K lists as text, replacing the file only once it is complete.
+     */
+    public void write(File reportFile) {
+        if (reportFile == null)
+            throw new IllegalArgumentException("Path cant be null!");
+        try (OutputTarget target = OutputTarget.of(reportFile, true);
+             BufferedWriter bw = new BufferedWriter(new FileWriter(target.getFile()))) {
+            bw.write(toString());
+            target.complete();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write expiry report: " + reportFile.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Expiry report as of ").append(asOf).append(", expiring within ").append(windowDays)
+                .append(" days").append(nl);
+        for (Status status : Status.values()) {
+            sb.append(status).append(": ").append(counts[status.ordinal()]).append(nl);
+        }
+        section(sb, "Expiring soonest", getExpiringSoonest());
+        section(sb, "Recently expired", getRecentlyExpired());
+        section(sb, "Next to expire", getNextToExpire());
+        return sb.toString();
+    }
+
+    private void section(StringBuilder sb, String title, List<License> licenses) {
+        String nl = System.lineSeparator();
+        sb.append(nl).append(title).append(" (").append(licenses.size()).append(')').append(nl);
+        for (License license : licenses) {
+            sb.append(daysLeft(license)).append(" days\t").append(license).append(nl);
+        }
+    }
+}
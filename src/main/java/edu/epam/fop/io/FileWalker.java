@@ -0,0 +1,249 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Iterative walk over the files under a root, shared by every scan.
+ *
+ * <p>Directories are kept on an explicit stack, so the depth of a tree is bounded by the heap, not the
+ * call stack. Each directory is listed by name and a {@link File} is created for one entry at a time.
+ * Excluded directories and those below the depth limit are skipped before they are listed, and a link
+ * back to a directory which is still being walked is not followed again. An unusable nested directory
+ * goes to {@link ScanSession#directoryFailed}, which throws or skips it; an unlistable root gives an empty walk.
+ * A directory whose path can't be resolved fails the walk with an {@link IOException}.
+ * A checkpointed walk lists every directory in name order, so its position can be saved and resumed.
+ */
+final class FileWalker implements AutoCloseable {
+    private final int maxDepth;
+    private final List<Glob> includes;
+    private final List<Glob> excludes;
+    private final boolean needsPath;
+    private final boolean sorted;
+    private final ScanSession session;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    // Canonical paths of the directories on the stack
+    private final Set<String> trail = new HashSet<>();
+    private File single;
+    private int depth;
+
+    FileWalker(File root, ScanOptions options, ScanSession session) throws IOException {
+        this.session = session;
+        this.maxDepth = options.getMaxDepth();
+        this.includes = options.getIncludes();
+        this.excludes = options.getExcludes();
+        this.needsPath = needsPath(includes) || needsPath(excludes);
+        this.sorted = options.getCheckpointFile() != null;
+        if (root.isDirectory()) {
+            String[] names = list(root);
+            if (names != null) {
+                String canonical = canonicalPath(root);
+                trail.add(canonical);
+                stack.push(new Frame(root, names, 0, "", canonical));
+            }
+        } else {
+            single = root;
+        }
+    }
+
+    // Next regular file, null once the walk is over
+    File next() throws IOException {
+        if (single != null) {
+            File file = single;
+            single = null;
+            depth = 0;
+            return file;
+        }
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.index == frame.names.length) {
+                trail.remove(stack.pop().canonical);
+                continue;
+            }
+            String name = frame.names[frame.index++];
+            File item = new File(frame.dir, name);
+            int itemDepth = frame.depth + 1;
+            String path = needsPath ? frame.path + name : null;
+            if (item.isDirectory()) {
+                if (itemDepth < maxDepth && !matchesAny(excludes, name, path)) {
+                    enter(item, itemDepth, path);
+                }
+            } else if (item.isFile() && !matchesAny(excludes, name, path)
+                    && (includes.isEmpty() || matchesAny(includes, name, path))) {
+                depth = itemDepth;
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Names from the root down to the last file returned
+    List<String> position() {
+        List<String> position = new ArrayList<>(stack.size());
+        Iterator<Frame> frames = stack.descendingIterator();
+        while (frames.hasNext()) {
+            Frame frame = frames.next();
+            if (frame.index > 0) {
+                position.add(frame.names[frame.index - 1]);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Moves a sorted walk right past a position it returned before, without listing the directories in
+     * front of it. Names which are gone since are skipped up to the place they would sort in.
+     */
+    void skipPast(List<String> position) throws IOException {
+        for (int i = 0; i < position.size() && !stack.isEmpty(); i++) {
+            Frame frame = stack.peek();
+            String name = position.get(i);
+            int at = Arrays.binarySearch(frame.names, name);
+            if (at < 0) {
+                frame.index = -at - 1;
+                return;
+            }
+            frame.index = at + 1;
+            if (i + 1 < position.size()) {
+                File item = new File(frame.dir, name);
+                int itemDepth = frame.depth + 1;
+                String path = needsPath ? frame.path + name : null;
+                int frames = stack.size();
+                if (item.isDirectory() && itemDepth < maxDepth && !matchesAny(excludes, name, path)) {
+                    enter(item, itemDepth, path);
+                }
+                if (stack.size() == frames) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Whether the last file returned sits directly in the root directory
+    boolean isTopLevel() {
+        return depth == 1;
+    }
+
+    private void enter(File dir, int dirDepth, String path) throws IOException {
+        if (!dir.exists() || !dir.canExecute()) {
+            session.directoryFailed(dir, "Directory is not executable or does not exist.");
+            return;
+        }
+        String canonical = canonicalPath(dir);
+        if (trail.contains(canonical)) {
+            return; // A link back up the tree, following it would never end
+        }
+        String[] names = list(dir);
+        if (names == null) {
+            session.directoryFailed(dir, "Directory can not be listed: " + dir.getAbsolutePath());
+            return;
+        }
+        trail.add(canonical);
+        stack.push(new Frame(dir, names, dirDepth, path == null ? null : path + '/', canonical));
+    }
+
+    private String[] list(File dir) {
+        if (!session.isTimed()) {
+            return sort(dir.list());
+        }
+        long start = System.nanoTime();
+        String[] names = dir.list();
+        session.directoryListed(dir, names == null ? 0 : names.length, System.nanoTime() - start);
+        return sort(names);
+    }
+
+    private String[] sort(String[] names) {
+        if (sorted && names != null) {
+            Arrays.sort(names);
+        }
+        return names;
+    }
+
+    // Symbolic links resolved, so a link back up the tree has the path of the directory it points to
+    static String canonicalPath(File dir) throws IOException {
+        return dir.getCanonicalPath();
+    }
+
+    /**
+     * Whether a walk with these options gets to the directory or file at relative, a path below its root with
+     * names separated by {@link File#separatorChar}: no directory on the way is excluded or at the depth limit,
+     * and a file is returned the way {@link #next()} would, whatever its depth.
+     */
+    static boolean reaches(String relative, boolean file, ScanOptions options) {
+        StringBuilder path = new StringBuilder();
+        int depth = 0;
+        int start = 0;
+        while (start <= relative.length()) {
+            int end = relative.indexOf(File.separatorChar, start);
+            if (end < 0) {
+                end = relative.length();
+            }
+            String name = relative.substring(start, end);
+            path.append(name);
+            if (matchesAny(options.getExcludes(), name, path.toString())) {
+                return false;
+            }
+            if (end == relative.length() && file) {
+                List<Glob> includes = options.getIncludes();
+                return includes.isEmpty() || matchesAny(includes, name, path.toString());
+            }
+            if (++depth >= options.getMaxDepth()) {
+                return false;
+            }
+            path.append('/');
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static boolean matchesAny(List<Glob> globs, String name, String path) {
+        for (Glob glob : globs) {
+            if (glob.matches(name, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean needsPath(List<Glob> globs) {
+        for (Glob glob : globs) {
+            if (glob.isPathPattern()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Drops the listings of a walk which was stopped early
+    @Override
+    public void close() {
+        stack.clear();
+        trail.clear();
+        single = null;
+    }
+
+    private static final class Frame {
+        private final File dir;
+        private final String[] names;
+        private final int depth;
+        private final String path;
+        private final String canonical;
+        private int index;
+
+        Frame(File dir, String[] names, int depth, String path, String canonical) {
+            this.dir = dir;
+            this.names = names;
+            this.depth = depth;
+            this.path = path;
+            this.canonical = canonical;
+        }
+    }
+}
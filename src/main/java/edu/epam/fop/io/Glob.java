@@ -0,0 +1,71 @@
+package edu.epam.fop.io;
+
+/**
+ * File name pattern for include/exclude filters. {@code *} and {@code ?} match within a single name,
+ * {@code **} also spans directories. A glob without '/' is matched against the name of each file or
+ * directory, at any depth, one with '/' against the path relative to the scanned root.
+ */
+final class Glob {
+    private final String pattern;
+    private final boolean path;
+
+    private Glob(String pattern, boolean path) {
+        this.pattern = pattern;
+        this.path = path;
+    }
+
+    static Glob compile(String glob) {
+        if (glob == null || glob.isEmpty())
+            throw new IllegalArgumentException("Glob cant be empty!");
+        int start = glob.startsWith("/") ? 1 : 0;
+        int end = glob.length() > start + 1 && glob.endsWith("/") ? glob.length() - 1 : glob.length();
+        String pattern = glob.substring(start, end);
+        return new Glob(pattern, start > 0 || pattern.indexOf('/') >= 0);
+    }
+
+    // Whether matching needs the relative path, not just the name
+    boolean isPathPattern() {
+        return path;
+    }
+
+    boolean matches(String name, String relativePath) {
+        return match(pattern, 0, path ? relativePath : name, 0);
+    }
+
+    private static boolean match(String p, int pi, String s, int si) {
+        while (pi < p.length()) {
+            char c = p.charAt(pi);
+            if (c == '*') {
+                boolean deep = pi + 1 < p.length() && p.charAt(pi + 1) == '*';
+                int next = pi + (deep ? 2 : 1);
+                // "**/" also matches no directory at all
+                if (deep && next < p.length() && p.charAt(next) == '/' && match(p, next + 1, s, si)) {
+                    return true;
+                }
+                for (int i = si; ; i++) {
+                    if (match(p, next, s, i)) {
+                        return true;
+                    }
+                    if (i == s.length() || !deep && s.charAt(i) == '/') {
+                        return false;
+                    }
+                }
+            }
+            if (si == s.length()) {
+                return false;
+            }
+            char sc = s.charAt(si);
+            if (c == '?' ? sc == '/' : c != sc) {
+                return false;
+            }
+            pi++;
+            si++;
+        }
+        return si == s.length();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
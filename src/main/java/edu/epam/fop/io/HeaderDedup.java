@@ -0,0 +1,166 @@
+package edu.epam.fop.io;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bounded cache of tokenized header bodies, keyed by a hash of their raw characters.
+ *
+ * <p>Vendored license stubs repeat the very same header thousands of times; with this cache each distinct
+ * header is tokenized once and every copy shares the resulting values. The text of every entry is kept and
+ * compared on a hit, so a hash collision costs a parse, never a wrong result. Values are interned when first
+ * parsed, so equal names and issuers of different headers share their Strings as well.
+ *
+ * <p>The cache sits in the per-file path of every worker of every scan sharing the parser, so it takes no
+ * lock. It is a direct-mapped table: each hash has one slot, a lookup is a plain read of it and a new header
+ * simply replaces whatever was there. Entries are immutable and only reachable through their final fields,
+ * which publishes them safely without a lock, and two threads storing into the same slot at once only cost
+ * one of them a later parse. The price is that a header can be pushed out by a colliding one while it is
+ * still in use, where an LRU list would have kept it; with a few distinct headers per tree and a table of
+ * hundreds of slots that is rare, and it is a parse, not a wrong result. Statistics are counted per thread,
+ * so they are exact once the threads which parsed are done.
+ */
+final class HeaderDedup {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Entry[] slots;
+    private final ThreadLocal<Counters> counters;
+    // Counters of the live threads which used the cache and the totals of those which ended, guarded by this
+    private final List<Counters> liveCounters = new ArrayList<>();
+    private final Counters ended = new Counters(null);
+
+    HeaderDedup(int maxEntries) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("Dedup size must be positive: " + maxEntries);
+        this.slots = new Entry[maxEntries];
+        this.counters = new ThreadLocal<>() {
+            @Override
+            protected Counters initialValue() {
+                return register(new Counters(Thread.currentThread()));
+            }
+        };
+    }
+
+    // Tokenized body lines of buf[start, end), shared with every other header of the same text
+    LicenseHeader parse(char[] buf, int start, int end) {
+        long hash = hash(buf, start, end);
+        int slot = Math.floorMod(hash ^ (hash >>> 32), slots.length);
+        Counters counts = counters.get();
+        Entry entry = slots[slot];
+        if (entry != null && entry.matches(hash, buf, start, end)) {
+            counts.hits++;
+            return entry.body;
+        }
+        counts.misses++;
+        LicenseHeader body = HeaderParser.parseBody(buf, start, end);
+        body.intern();
+        char[] text = new char[end - start];
+        System.arraycopy(buf, start, text, 0, text.length);
+        if (entry != null) {
+            counts.evictions++;
+        }
+        // Not touched after this, the final fields of the entry publish it to the other threads
+        slots[slot] = new Entry(hash, text, body);
+        return body;
+    }
+
+    int getMaxEntries() {
+        return slots.length;
+    }
+
+    int size() {
+        int size = 0;
+        for (Entry entry : slots) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    synchronized long getHits() {
+        long hits = ended.hits;
+        for (Counters counts : liveCounters) {
+            hits += counts.hits;
+        }
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        long misses = ended.misses;
+        for (Counters counts : liveCounters) {
+            misses += counts.misses;
+        }
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        long evictions = ended.evictions;
+        for (Counters counts : liveCounters) {
+            evictions += counts.evictions;
+        }
+        return evictions;
+    }
+
+    // Once per thread, the counters are only written by their own thread afterwards. Threads of earlier scans
+    // which ended are folded into the totals here, so the list does not grow with every worker pool
+    private synchronized Counters register(Counters counts) {
+        for (Iterator<Counters> it = liveCounters.iterator(); it.hasNext(); ) {
+            Counters live = it.next();
+            if (!live.owner.isAlive()) {
+                ended.hits += live.hits;
+                ended.misses += live.misses;
+                ended.evictions += live.evictions;
+                it.remove();
+            }
+        }
+        liveCounters.add(counts);
+        return counts;
+    }
+
+    // FNV-1a
+    private static long hash(char[] buf, int start, int end) {
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h = (h ^ buf[i]) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static final class Counters {
+        private final Thread owner;
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        private Counters(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static final class Entry {
+        private final long hash;
+        private final char[] text;
+        private final LicenseHeader body;
+
+        private Entry(long hash, char[] text, LicenseHeader body) {
+            this.hash = hash;
+            this.text = text;
+            this.body = body;
+        }
+
+        private boolean matches(long hash, char[] buf, int start, int end) {
+            if (hash != this.hash || end - start != text.length) {
+                return false;
+            }
+            for (int i = 0; i < text.length; i++) {
+                if (buf[start + i] != text[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
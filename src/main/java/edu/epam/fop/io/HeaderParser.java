@@ -0,0 +1,243 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Streaming license header parser. Reads a file exactly once and stops right after the
+ * closing marker, so the body of a license file (or the rest of a big binary) is never touched.
+ *
+ * <p>A license file always starts with the header, so the first line is sniffed before anything
+ * else: as soon as it can no longer be a {@code ---} line the file is rejected. The header itself
+ * is read under a character and line budget into a per-thread buffer which is reused from file to file,
+ * a malformed file can't pull more than that onto the heap. The file size decides how the window is read:
+ * files too short for a header are not opened, small files are read whole in one go, big ones only up to
+ * the window. Body lines are tokenized once the extent of the header is known, identical headers share one
+ * tokenized result through a {@link HeaderDedup}.
+ */
+final class HeaderParser {
+    static final String MARKER = "---";
+
+    static final int DEFAULT_MAX_HEADER_CHARS = 4096;
+    static final int DEFAULT_MAX_HEADER_LINES = 64;
+    static final int DEFAULT_DEDUP_ENTRIES = 256;
+    static final HeaderParser DEFAULT = new HeaderParser(DEFAULT_MAX_HEADER_CHARS, DEFAULT_MAX_HEADER_LINES);
+
+    // Longest first line which may still be the start marker, surrounding whitespace included
+    private static final int MAX_MARKER_LINE = 64;
+    // "---" and a line break
+    private static final int MIN_MARKER_LINE = 4;
+    // Local file header and empty archive signatures of zip, jar and friends; plain ASCII, so they survive any charset
+    private static final String ZIP_ENTRY = "PK\u0003\u0004";
+    private static final String ZIP_EMPTY = "PK\u0005\u0006";
+
+    // BufferedReader needs a buffer, reads of at least its size go straight to the underlying reader
+    private static final int BYPASS_BUFFER = 1;
+
+    private final int maxHeaderChars;
+    private final int maxHeaderLines;
+    private final ThreadLocal<char[]> buffers;
+    // Null when disabled
+    private final HeaderDedup dedup;
+
+    HeaderParser(int maxHeaderChars, int maxHeaderLines) {
+        this(maxHeaderChars, maxHeaderLines, DEFAULT_DEDUP_ENTRIES);
+    }
+
+    // A dedup size of 0 tokenizes every header on its own
+    HeaderParser(int maxHeaderChars, int maxHeaderLines, int dedupEntries) {
+        if (maxHeaderChars < MAX_MARKER_LINE || maxHeaderLines < 2) {
+            throw new IllegalArgumentException("Header limits are too small: " + maxHeaderChars
+                    + " chars, " + maxHeaderLines + " lines");
+        }
+        this.maxHeaderChars = maxHeaderChars;
+        this.maxHeaderLines = maxHeaderLines;
+        this.dedup = dedupEntries == 0 ? null : new HeaderDedup(dedupEntries);
+        this.buffers = new ThreadLocal<>() {
+            @Override
+            protected char[] initialValue() {
+                return new char[maxHeaderChars];
+            }
+        };
+    }
+
+    int getMaxHeaderChars() {
+        return maxHeaderChars;
+    }
+
+    int getMaxHeaderLines() {
+        return maxHeaderLines;
+    }
+
+    HeaderDedup getDedup() {
+        return dedup;
+    }
+
+    LicenseHeader read(File file) {
+        return read(file, null);
+    }
+
+    // Same as read(File), also filling in stats when they are given
+    LicenseHeader read(File file, ReadStats stats) {
+        LicenseHeader header = new LicenseHeader();
+        long length = file.length();
+        if (length < MIN_MARKER_LINE && file.isFile()) {
+            return header; // too short to even start a header, not worth opening
+        }
+        long opening = stats == null ? 0 : System.nanoTime();
+        // The window is read in bulk straight into the reused buffer, a bigger BufferedReader buffer would only add a copy
+        try (BufferedReader br = new BufferedReader(new FileReader(file), BYPASS_BUFFER)) {
+            if (stats != null) {
+                stats.read = true;
+                stats.ioNanos += System.nanoTime() - opening;
+            }
+            scan(br, buffers.get(), header, file, length, stats);
+        } catch (IOException e) {
+            header.fail(Diagnostic.Type.READ_ERROR, "Error reading file: " + file.getAbsolutePath() + " - " + e.getMessage());
+        }
+        return header;
+    }
+
+    // Fills buf up to maxHeaderChars on demand and hands complete lines to the tokenizer
+    private void scan(BufferedReader br, char[] buf, LicenseHeader header, File file, long length, ReadStats stats)
+            throws IOException {
+        int limit = 0;
+        int pos = 0;
+        int scanned = 0;
+        int lines = 0;
+        // First body line, once the start marker is behind us
+        int body = -1;
+        boolean eof = false;
+        boolean skipLF = false;
+        while (true) {
+            if (skipLF && pos < limit) {
+                if (buf[pos] == '\n') {
+                    pos++;
+                }
+                skipLF = false;
+                scanned = pos;
+            }
+            if (body < 0 && header.isStarted() && !skipLF) {
+                body = pos;
+            }
+            int end = scanned;
+            while (end < limit && buf[end] != '\n' && buf[end] != '\r') {
+                end++;
+            }
+            if (end == limit && !eof) {
+                scanned = end;
+                if (!header.isStarted() && (limit - pos > MAX_MARKER_LINE || !couldBeMarker(buf, pos, limit))) {
+                    if (pos == 0 && isArchive(buf, limit)) {
+                        header.archive();
+                    }
+                    return; // not a license, nothing else is read
+                }
+                if (limit == maxHeaderChars) {
+                    tokenize(buf, body, pos, header, false);
+                    header.fail(Diagnostic.Type.HEADER_TOO_LARGE, "License header exceeds " + maxHeaderChars + " characters: " + file.getAbsolutePath());
+                    return;
+                }
+                int n = stats == null ? br.read(buf, limit, maxHeaderChars - limit) : timedRead(br, buf, limit, stats);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    limit += n;
+                    // A small file read up to its size needs no extra call just to see the end of it
+                    eof = limit == length;
+                }
+                continue;
+            }
+            if (end == pos && end == limit) {
+                tokenize(buf, body, pos, header, false);
+                return; // end of file
+            }
+            lines++;
+            header.nextLine();
+            if (!header.isStarted()) {
+                if (end == limit || !HeaderTokenizer.isMarker(buf, pos, end)) {
+                    return; // a lone marker is not a header either
+                }
+                header.start();
+            } else if (lines > maxHeaderLines) {
+                tokenize(buf, body, pos, header, false);
+                header.fail(Diagnostic.Type.HEADER_TOO_LARGE, "License header exceeds " + maxHeaderLines + " lines: " + file.getAbsolutePath());
+                return;
+            } else if (HeaderTokenizer.isMarker(buf, pos, end)) {
+                tokenize(buf, body, pos, header, true);
+                header.terminate();
+                return;
+            }
+            if (end < limit) {
+                skipLF = buf[end] == '\r';
+                pos = end + 1;
+            } else {
+                pos = end;
+            }
+            scanned = pos;
+        }
+    }
+
+    // Complete headers go through the dedup, cut off ones are rare and tokenized on their own
+    private void tokenize(char[] buf, int start, int end, LicenseHeader header, boolean complete) {
+        if (start < 0) {
+            return; // started but the body never began, e.g. a lone marker at the end of the file
+        }
+        header.merge(complete && dedup != null ? dedup.parse(buf, start, end) : parseBody(buf, start, end));
+    }
+
+    // Tokenizes the complete lines of buf[start, end), numbered as in the file: the body always starts at line 2
+    static LicenseHeader parseBody(char[] buf, int start, int end) {
+        LicenseHeader body = new LicenseHeader();
+        body.nextLine();
+        int pos = start;
+        while (pos < end) {
+            int eol = pos;
+            while (eol < end && buf[eol] != '\n' && buf[eol] != '\r') {
+                eol++;
+            }
+            body.nextLine();
+            HeaderTokenizer.tokenize(buf, pos, eol, body);
+            pos = eol + 1 < end && buf[eol] == '\r' && buf[eol + 1] == '\n' ? eol + 2 : eol + 1;
+        }
+        return body;
+    }
+
+    private int timedRead(BufferedReader br, char[] buf, int limit, ReadStats stats) throws IOException {
+        long start = System.nanoTime();
+        int n = br.read(buf, limit, maxHeaderChars - limit);
+        stats.ioNanos += System.nanoTime() - start;
+        if (n > 0) {
+            stats.chars += n;
+        }
+        return n;
+    }
+
+    private static boolean isArchive(char[] buf, int limit) {
+        return startsWith(buf, limit, ZIP_ENTRY) || startsWith(buf, limit, ZIP_EMPTY);
+    }
+
+    private static boolean startsWith(char[] buf, int limit, String prefix) {
+        if (limit < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether an unfinished first line may still turn into the start marker
+    private static boolean couldBeMarker(char[] buf, int start, int end) {
+        int i = HeaderTokenizer.trimStart(buf, start, end);
+        int dashes = 0;
+        while (i < end && buf[i] == '-') {
+            dashes++;
+            i++;
+        }
+        return dashes <= MARKER.length() && (i == end || HeaderTokenizer.trimStart(buf, i, end) == end && dashes == MARKER.length());
+    }
+}
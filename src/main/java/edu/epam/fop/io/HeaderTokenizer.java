@@ -0,0 +1,85 @@
+package edu.epam.fop.io;
+
+/**
+ * Scans header lines straight out of a char buffer. Keys are compared in place and dates are checked
+ * char by char with {@link IsoDate}, the only Strings created are the final property values.
+ */
+final class HeaderTokenizer {
+    private static final char[] MARKER = HeaderParser.MARKER.toCharArray();
+    private static final char[] LICENSE = LicenseHeader.LICENSE.toCharArray();
+    private static final char[] ISSUED_BY = LicenseHeader.ISSUED_BY.toCharArray();
+    private static final char[] ISSUED_ON = LicenseHeader.ISSUED_ON.toCharArray();
+    private static final char[] EXPIRES_ON = LicenseHeader.EXPIRES_ON.toCharArray();
+
+    private HeaderTokenizer() {
+    }
+
+    // Same notion of blank as String.trim()
+    static boolean isBlank(char c) {
+        return c <= ' ';
+    }
+
+    static int trimStart(char[] buf, int start, int end) {
+        while (start < end && isBlank(buf[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    static int trimEnd(char[] buf, int start, int end) {
+        while (end > start && isBlank(buf[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    static boolean isMarker(char[] buf, int start, int end) {
+        int s = trimStart(buf, start, end);
+        return matches(buf, s, trimEnd(buf, s, end), MARKER);
+    }
+
+    // Handles one "Key: value" line, lines without a colon and unknown keys are ignored like before
+    static void tokenize(char[] buf, int start, int end, LicenseHeader header) {
+        int colon = start;
+        while (colon < end && buf[colon] != ':') {
+            colon++;
+        }
+        if (colon == end) {
+            return;
+        }
+        int keyStart = trimStart(buf, start, colon);
+        int keyEnd = trimEnd(buf, keyStart, colon);
+        int valueStart = trimStart(buf, colon + 1, end);
+        int valueEnd = trimEnd(buf, valueStart, end);
+
+        if (matches(buf, keyStart, keyEnd, LICENSE)) {
+            header.setLicenseName(new String(buf, valueStart, valueEnd - valueStart));
+        } else if (matches(buf, keyStart, keyEnd, ISSUED_BY)) {
+            header.setIssuedBy(new String(buf, valueStart, valueEnd - valueStart));
+        } else if (matches(buf, keyStart, keyEnd, ISSUED_ON)) {
+            header.setIssuedOn(date(buf, valueStart, valueEnd, LicenseHeader.ISSUED_ON, header));
+        } else if (matches(buf, keyStart, keyEnd, EXPIRES_ON)) {
+            header.setExpiresOn(date(buf, valueStart, valueEnd, LicenseHeader.EXPIRES_ON, header));
+        }
+    }
+
+    private static String date(char[] buf, int start, int end, String key, LicenseHeader header) {
+        String value = new String(buf, start, end - start);
+        if (!IsoDate.isValid(buf, start, end)) {
+            header.fail(Diagnostic.Type.INVALID_DATE, "Invalid date for " + key + ": " + value);
+        }
+        return value;
+    }
+
+    private static boolean matches(char[] buf, int start, int end, char[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buf[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.epam.fop.io;
+
+/**
+ * Hand-rolled yyyy-mm-dd checks and conversions. Headers are validated straight from the read buffer without
+ * building a LocalDate or an exception for every date, impossible dates like 2010-02-30 are rejected.
+ */
+final class IsoDate {
+    private static final int LENGTH = 10;
+    // Days from 0000-03-01 to 1970-01-01 in the March based calendar used by epochDay
+    private static final long DAYS_0000_TO_1970 = 719_468;
+
+    private IsoDate() {
+    }
+
+    static boolean isValid(String date) {
+        if (date == null || date.length() != LENGTH || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = date.charAt(i);
+            if (i != 4 && i != 7 && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return exists(number(date, 0, 4), number(date, 5, 2), number(date, 8, 2));
+    }
+
+    // Digits and dashes in the right places, and a day which exists in that month
+    static boolean isValid(char[] buf, int start, int end) {
+        if (end - start != LENGTH || buf[start + 4] != '-' || buf[start + 7] != '-') {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (i != start + 4 && i != start + 7 && (buf[i] < '0' || buf[i] > '9')) {
+                return false;
+            }
+        }
+        return exists(number(buf, start, 4), number(buf, start + 5, 2), number(buf, start + 8, 2));
+    }
+
+    private static boolean exists(int year, int month, int day) {
+        return month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    static boolean isLeap(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Same as LocalDate.parse(date).toEpochDay(), for a date which passed isValid
+    static long epochDay(String date) {
+        if (!isValid(date)) {
+            throw new IllegalArgumentException("Invalid date: " + date);
+        }
+        int year = number(date, 0, 4);
+        int month = number(date, 5, 2);
+        int day = number(date, 8, 2);
+        // Counting years from March puts the leap day at the end of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int number(char[] buf, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            value = value * 10 + buf[i] - '0';
+        }
+        return value;
+    }
+
+    private static int number(String s, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            value = value * 10 + s.charAt(i) - '0';
+        }
+        return value;
+    }
+}
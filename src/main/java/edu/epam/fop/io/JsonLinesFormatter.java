@@ -0,0 +1,70 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * JSON Lines output, one {"path", "license", "issuedBy", "issuedOn", "expiresOn"} object per license with
+ * a null expiry for unlimited ones. Everything outside printable ASCII is written as a \\u escape, so the
+ * output stays valid whatever the charset of the output writer.
+ */
+final class JsonLinesFormatter implements LicenseFormatter {
+    private static final String SEPARATOR = System.lineSeparator();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final RelativePath paths;
+
+    JsonLinesFormatter(File root) {
+        this.paths = new RelativePath(root);
+    }
+
+    @Override
+    public LicenseFormatter forScan(File root) {
+        return new JsonLinesFormatter(root);
+    }
+
+    // Ordered by path, the way a tree is listed
+    @Override
+    public String sortKey(License license, String record) {
+        return paths.of(license.getFile());
+    }
+
+    @Override
+    public void format(License license, StringBuilder out) {
+        out.append("{\"path\":");
+        string(paths.of(license.getFile()), out);
+        out.append(",\"license\":");
+        string(license.getName(), out);
+        out.append(",\"issuedBy\":");
+        string(license.getIssuedBy(), out);
+        out.append(",\"issuedOn\":\"").append(license.getIssuedOn()).append("\",\"expiresOn\":");
+        if (license.isUnlimited()) {
+            out.append("null");
+        } else {
+            out.append('"').append(license.getExpiresOn()).append('"');
+        }
+        out.append('}').append(SEPARATOR);
+    }
+
+    static void string(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        out.append("\\u").append(HEX[c >> 12 & 0xf]).append(HEX[c >> 8 & 0xf])
+                                .append(HEX[c >> 4 & 0xf]).append(HEX[c & 0xf]);
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,50 @@
+package edu.epam.fop.io;
+
+import java.util.Arrays;
+
+/**
+ * Latency distribution in power of two buckets, so recording is a shift and an increment.
+ * Percentiles are the upper bound of their bucket, good to a factor of two. Not thread-safe.
+ */
+final class LatencyHistogram {
+    private final long[] buckets = new long[64];
+    private long count;
+    private long max;
+
+    void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets[64 - Long.numberOfLeadingZeros(value) - (value == 0 ? 0 : 1)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    // Upper bound of the bucket holding the given fraction of the values, 0 when nothing was recorded
+    long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return i == 63 ? max : Math.min(max, (1L << (i + 1)) - 1);
+            }
+        }
+        return max;
+    }
+
+    void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        max = 0;
+    }
+}
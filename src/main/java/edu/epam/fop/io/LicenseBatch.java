@@ -0,0 +1,221 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Many {@link LicenseReader#collectLicenses(File, File, ScanOptions)} calls in one go, on one pool of
+ * {@link ScanOptions#workers(int)} threads. Roots are walked one after the other while the workers keep
+ * parsing, so the disks stay busy across roots instead of idling between separate scans.
+ *
+ * <p>Every root goes to an output file; roots with the same output file are merged into it, in the order
+ * they were added when the options ask for an ordered output. A root which is the same as, or lies under,
+ * another root of the same output is not walked twice, the outer root covers it, unless the outer walk
+ * never gets there because a directory on the way is excluded or past {@link ScanOptions#maxDepth(int)}.
+ * The files of a covered root are the ones the outer walk finds, with depth and path patterns counted from
+ * the outer root. The result has a {@link ScanReport} per root, a covered root shares the report of the root
+ * covering it. Options apply to all roots, an incremental cache is shared by all of them. A failing root
+ * fails the whole batch.
+ *
+ * <pre>
+ * Map&lt;File, ScanReport&gt; reports = new LicenseBatch(new ScanOptions().workers(8))
+ *         .output(merged)
+ *         .add(productA)
+ *         .add(productB)
+ *         .add(productC, separateOutput)
+ *         .run();
+ * </pre>
+ */
+public final class LicenseBatch {
+    private final ScanOptions options;
+    private final List<Root> roots = new ArrayList<>();
+    private File output;
+
+    public LicenseBatch(ScanOptions options) {
+        if (options == null)
+            throw new IllegalArgumentException("Options cant be null!");
+        this.options = options;
+    }
+
+    // Output of the roots added without one of their own
+    public LicenseBatch output(File outputFile) {
+        if (outputFile == null)
+            throw new IllegalArgumentException("Path cant be null!");
+        this.output = outputFile;
+        return this;
+    }
+
+    public LicenseBatch add(File root) {
+        return add(root, null);
+    }
+
+    public LicenseBatch add(File root, File outputFile) {
+        if (root == null)
+            throw new IllegalArgumentException("Path cant be null!");
+        roots.add(new Root(root, outputFile));
+        return this;
+    }
+
+    /**
+     * Scans all roots and writes all outputs. Reports are keyed by the roots as they were added, a root added
+     * for several outputs maps to the report of the last one.
+     */
+    public Map<File, ScanReport> run() {
+        for (Root root : roots) {
+            LicenseReader.validateFiles(root.file(), outputOf(root));
+        }
+        Run run = new Run(ScanSession.loadCache(options));
+        if (!roots.isEmpty()) {
+            open(roots.get(0), run);
+        }
+        if (run.cache != null) {
+            run.cache.save();
+        }
+        // Every output is in place by now
+        for (ParallelScanner.Job job : run.jobs) {
+            job.session().finish();
+        }
+        Map<File, ScanReport> reports = new LinkedHashMap<>();
+        for (Root root : roots) {
+            reports.put(root.file(), run.sessions.get(root).getReport());
+        }
+        return Collections.unmodifiableMap(reports);
+    }
+
+    /**
+     * Opens the output of first, shared by every root going to the same file, then the next output one level
+     * of recursion down, so every output is a try resource. Scans once all of them are open.
+     */
+    private void open(Root first, Run run) {
+        File outputFile = outputOf(first);
+        try (OutputTarget target = OutputTarget.of(outputFile, options.isAtomicOutput());
+             BufferedWriter bw = new BufferedWriter(new FileWriter(target.getFile()), options.getBufferSize())) {
+            if (run.outputPaths.isEmpty()) {
+                for (Root root : roots) {
+                    run.outputPaths.put(root, FileWalker.canonicalPath(outputOf(root)));
+                }
+            }
+            String path = run.outputPaths.get(first);
+            run.opened.add(path);
+            Output out = new Output(outputFile);
+            Root next = null;
+            for (Root root : roots) {
+                String rootOutput = run.outputPaths.get(root);
+                if (rootOutput.equals(path)) {
+                    out.roots.add(root);
+                } else if (next == null && !run.opened.contains(rootOutput)) {
+                    next = root;
+                }
+            }
+            out.plan(options, run.cache, run.sessions);
+            // Paths are relative to the root when the output has only one
+            File root = out.walked.size() == 1 ? out.walked.keySet().iterator().next().file() : null;
+            OutputSink sink = OutputSink.of(bw, options.copy().formatter(options.getFormatter().forScan(root)));
+            sink.start();
+            ParallelScanner.Output shared = new ParallelScanner.Output(sink);
+            for (Map.Entry<Root, ScanSession> walked : out.walked.entrySet()) {
+                run.jobs.add(new ParallelScanner.Job(walked.getKey().file(), walked.getValue(), shared));
+            }
+            if (next != null) {
+                open(next, run);
+            } else {
+                ParallelScanner.collectLicenses(run.jobs, options);
+            }
+            sink.finish();
+            target.complete();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("An error occurred while processing files.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Interrupted while processing files.");
+        }
+    }
+
+    private File outputOf(Root root) {
+        return root.output() == null ? output : root.output();
+    }
+
+    private record Root(File file, File output) {
+    }
+
+    // State of one run, built up while its outputs are opened
+    private static final class Run {
+        private final LicenseCache cache;
+        // Canonical output path of every root
+        private final Map<Root, String> outputPaths = new HashMap<>();
+        private final Set<String> opened = new HashSet<>();
+        private final Map<Root, ScanSession> sessions = new LinkedHashMap<>();
+        private final List<ParallelScanner.Job> jobs = new ArrayList<>();
+
+        private Run(LicenseCache cache) {
+            this.cache = cache;
+        }
+    }
+
+    private static final class Output {
+        private final File file;
+        private final List<Root> roots = new ArrayList<>();
+        // Roots which are actually walked, in the order they were added
+        private final Map<Root, ScanSession> walked = new LinkedHashMap<>();
+
+        private Output(File file) {
+            this.file = file;
+        }
+
+        // Gives every root a session, covered roots get the one of the root covering them
+        private void plan(ScanOptions options, LicenseCache cache, Map<Root, ScanSession> sessions)
+                throws IOException {
+            List<String> paths = new ArrayList<>();
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < roots.size(); i++) {
+                paths.add(FileWalker.canonicalPath(roots.get(i).file()));
+                order.add(i);
+            }
+            // Outer roots first, the first one added among equal roots, so a root is covered by a walked one
+            order.sort(Comparator.comparingInt(i -> paths.get(i).length()));
+            int[] cover = new int[roots.size()];
+            for (int i : order) {
+                cover[i] = i;
+                for (int j : order) {
+                    if (j == i) {
+                        break;
+                    }
+                    if (cover[j] == j && covers(paths.get(j), paths.get(i), roots.get(i).file().isFile(), options)) {
+                        cover[i] = j;
+                        break;
+                    }
+                }
+            }
+            for (int i = 0; i < roots.size(); i++) {
+                if (cover[i] == i) {
+                    ScanSession session = new ScanSession(options, cache);
+                    walked.put(roots.get(i), session);
+                    sessions.put(roots.get(i), session);
+                }
+            }
+            for (int i = 0; i < roots.size(); i++) {
+                sessions.putIfAbsent(roots.get(i), sessions.get(roots.get(cover[i])));
+            }
+        }
+
+        // Whether the walk of outer goes through inner, so walking inner as well would give its files twice
+        private static boolean covers(String outer, String inner, boolean file, ScanOptions options) {
+            if (inner.equals(outer)) {
+                return true;
+            }
+            String prefix = outer.endsWith(File.separator) ? outer : outer + File.separator;
+            return inner.startsWith(prefix) && FileWalker.reaches(inner.substring(prefix.length()), file, options);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-disk index of the previous scan, used for incremental rescans.
+ *
+ * <p>Each file is keyed by its absolute path and fingerprinted by size and modification time,
+ * optionally also by a hash of the header window (the only part of a file the output depends on).
+ * A file with an unchanged fingerprint reuses its cached result without being opened; entries hold the
+ * values only, the result is rebuilt on the file as it was walked, so paths look the same either way. Only files
+ * seen by the current scan are written back, so deleted files drop out of the index. The index ends
+ * with a checksum trailer, anything that does not match it is thrown away and the scan starts from scratch.
+ */
+final class LicenseCache {
+    private static final String MAGIC = "#license-cache v3";
+    private static final String TRAILER = "#end ";
+    static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NO_HASH = 0;
+
+    private final File file;
+    private final boolean contentHash;
+    private final int hashWindow;
+    private final Map<String, Entry> previous;
+    // Guarded by this
+    private final Map<String, Entry> current = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    private LicenseCache(File file, boolean contentHash, int hashWindow, Map<String, Entry> previous) {
+        this.file = file;
+        this.contentHash = contentHash;
+        this.hashWindow = hashWindow;
+        this.previous = previous;
+    }
+
+    static LicenseCache load(File file, boolean contentHash, int hashWindow) {
+        return new LicenseCache(file, contentHash, hashWindow, readEntries(file));
+    }
+
+    // Cached result for the file, or the processor's one; stats tell which of the two it was
+    ProcessResult process(ProcessFile processor, File item, ReadStats stats) {
+        String path = item.getAbsolutePath();
+        long size = item.length();
+        long modified = item.lastModified();
+        long hash = contentHash ? hashHeaderWindow(item) : NO_HASH;
+
+        Entry entry = previous.get(path);
+        ProcessResult result;
+        if (entry != null && entry.size() == size && entry.modified() == modified && entry.hash() == hash) {
+            result = entry.result(item);
+            if (stats != null) {
+                stats.cached = true;
+            }
+            synchronized (this) {
+                hits++;
+            }
+        } else {
+            result = processor.process(item, stats);
+            entry = Entry.of(size, modified, hash, result);
+            synchronized (this) {
+                misses++;
+            }
+        }
+        synchronized (this) {
+            current.put(path, entry);
+        }
+        return result;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    // Writes the index next to its final place and swaps it in, so a crash never leaves half an index
+    synchronized void save() {
+        File tmp = new File(file.getPath() + ".tmp");
+        long checksum = FNV_OFFSET;
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(tmp))) {
+            bw.write(MAGIC);
+            bw.newLine();
+            for (Map.Entry<String, Entry> e : current.entrySet()) {
+                String line = format(e.getKey(), e.getValue());
+                checksum = hash(checksum, line);
+                bw.write(line);
+                bw.newLine();
+            }
+            bw.write(TRAILER + current.size() + " " + Long.toHexString(checksum));
+            bw.newLine();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write license cache: " + file.getAbsolutePath());
+        }
+        if (!OutputTarget.replace(tmp, file)) {
+            throw new IllegalArgumentException("Could not replace license cache: " + file.getAbsolutePath());
+        }
+    }
+
+    private static Map<String, Entry> readEntries(File file) {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!file.isFile()) {
+            return entries;
+        }
+        long checksum = FNV_OFFSET;
+        String trailer = null;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line = br.readLine();
+            if (!MAGIC.equals(line)) {
+                return new HashMap<>();
+            }
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(TRAILER)) {
+                    // The trailer must be the very last line
+                    trailer = br.readLine() == null ? line : null;
+                    break;
+                }
+                checksum = hash(checksum, line);
+                if (!parse(line, entries)) {
+                    return new HashMap<>();
+                }
+            }
+        } catch (IOException e) {
+            return new HashMap<>();
+        }
+        String expected = TRAILER + entries.size() + " " + Long.toHexString(checksum);
+        return expected.equals(trailer) ? entries : new HashMap<>();
+    }
+
+    private static String format(String path, Entry entry) {
+        String fingerprint = escape(path) + '\t' + entry.size() + '\t' + entry.modified() + '\t'
+                + Long.toHexString(entry.hash());
+        if (entry.name() == null) {
+            return fingerprint + "\tE\t" + entry.type() + '\t' + entry.line() + '\t' + escape(entry.message());
+        }
+        return fingerprint + "\tL\t" + escape(entry.name()) + '\t' + escape(entry.issuedBy())
+                + '\t' + entry.issuedOn() + '\t' + (entry.expiresOn() == null ? "" : entry.expiresOn());
+    }
+
+    private static boolean parse(String line, Map<String, Entry> entries) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length < 6) {
+            return false;
+        }
+        if (!isNumber(fields[1]) || !isNumber(fields[2]) || !isHex(fields[3])) {
+            return false;
+        }
+        long size = Long.parseLong(fields[1]);
+        long modified = Long.parseLong(fields[2]);
+        long hash = Long.parseUnsignedLong(fields[3], 16);
+        Entry entry;
+        if ("L".equals(fields[4]) && fields.length == 9 && IsoDate.isValid(fields[7])
+                && (fields[8].isEmpty() || IsoDate.isValid(fields[8]))) {
+            entry = new Entry(size, modified, hash, unescape(fields[5]), unescape(fields[6]), fields[7],
+                    fields[8].isEmpty() ? null : fields[8], null, 0, null);
+        } else if ("E".equals(fields[4]) && fields.length == 8 && type(fields[5]) != null
+                && fields[6].length() < 10 && isNumber(fields[6])) {
+            entry = new Entry(size, modified, hash, null, null, null, null, type(fields[5]),
+                    Integer.parseInt(fields[6]), unescape(fields[7]));
+        } else {
+            return false;
+        }
+        entries.put(unescape(fields[0]), entry);
+        return true;
+    }
+
+    // FNV-1a over the first hashWindow chars of the file
+    private long hashHeaderWindow(File item) {
+        long h = FNV_OFFSET;
+        char[] buf = new char[Math.min(hashWindow, 8192)];
+        try (BufferedReader br = new BufferedReader(new FileReader(item), buf.length)) {
+            int left = hashWindow;
+            int n;
+            while (left > 0 && (n = br.read(buf, 0, Math.min(left, buf.length))) > 0) {
+                for (int i = 0; i < n; i++) {
+                    h = (h ^ buf[i]) * FNV_PRIME;
+                }
+                left -= n;
+            }
+        } catch (IOException e) {
+            return NO_HASH; // Never matches a stored hash, the file gets parsed and reports the error itself
+        }
+        return h == NO_HASH ? 1 : h;
+    }
+
+    // FNV-1a over the line and its line break, also checksums the lines of a checkpoint
+    static long hash(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return (h ^ '\n') * FNV_PRIME;
+    }
+
+    static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String unescape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Diagnostic.Type type(String name) {
+        for (Diagnostic.Type type : Diagnostic.Type.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNumber(String s) {
+        if (s.isEmpty() || s.length() > 18) {
+            return false;
+        }
+        int start = s.charAt(0) == '-' ? 1 : 0;
+        if (start == s.length()) {
+            return false;
+        }
+        for (int i = start; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHex(String s) {
+        if (s.isEmpty() || s.length() > 16) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Either the license values or the failure, without the file they were found in
+    private record Entry(long size, long modified, long hash, String name, String issuedBy, String issuedOn,
+                         String expiresOn, Diagnostic.Type type, int line, String message) {
+
+        static Entry of(long size, long modified, long hash, ProcessResult result) {
+            License license = result.license();
+            if (license == null) {
+                Diagnostic diagnostic = result.diagnostic();
+                return new Entry(size, modified, hash, null, null, null, null, diagnostic.type(),
+                        diagnostic.line(), diagnostic.message());
+            }
+            return new Entry(size, modified, hash, license.getName(), license.getIssuedBy(),
+                    license.getIssuedOn(), license.getExpiresOn(), null, 0, null);
+        }
+
+        ProcessResult result(File file) {
+            if (name == null) {
+                return ProcessResult.failed(new Diagnostic(file, type, line, message));
+            }
+            return ProcessResult.ok(new License(file, name, issuedBy, issuedOn, expiresOn));
+        }
+    }
+}
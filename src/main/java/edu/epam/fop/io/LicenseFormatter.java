@@ -0,0 +1,63 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * Turns a license into output text. Implementations append to the caller's builder instead of
+ * returning a String, so a whole batch of lines is built in one reusable buffer.
+ *
+ * <p>Every scan asks for its own instance with {@link #forScan(File)}, so formatters may print paths
+ * relative to the root or aggregate over the scan. {@link #format} is called from several threads at once
+ * in a parallel scan, {@link #start} and {@link #finish} once each around all of the lines.
+ */
+public interface LicenseFormatter {
+    // "License for <file> is <name> issued by <issuer> [<issued on> - <expires on or unlimited>]"
+    LicenseFormatter TEXT = new TextFormatter();
+    // One JSON object per line, with the path relative to the root
+    LicenseFormatter JSON_LINES = new JsonLinesFormatter(null);
+    // RFC 4180 CSV with a header row, with the path relative to the root
+    LicenseFormatter CSV = new CsvFormatter(null);
+    // No line per license, one SPDX-like tag-value block per license and issuer at the end
+    LicenseFormatter SUMMARY = new SummaryFormatter();
+
+    // Appends the output for one license, line separator included
+    void format(License license, StringBuilder out);
+
+    // The instance formatting one scan of root, stateful formatters must return a fresh one
+    default LicenseFormatter forScan(File root) {
+        return this;
+    }
+
+    // Orders the records of a sorted sharded output, by default the record itself
+    default String sortKey(License license, String record) {
+        return record;
+    }
+
+    // Whether finish writes what all the licenses add up to, a resumed scan could not restore that
+    default boolean isAggregating() {
+        return false;
+    }
+
+    // Appended before the first license, e.g. a header row
+    default void start(StringBuilder out) {
+    }
+
+    // Appended after the last license, e.g. totals
+    default void finish(StringBuilder out) {
+    }
+}
+
+// The classic collectLicenses line, with the format string taken apart once instead of on every line
+final class TextFormatter implements LicenseFormatter {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    @Override
+    public void format(License license, StringBuilder out) {
+        out.append("License for ").append(license.getFile().getName())
+                .append(" is ").append(license.getName())
+                .append(" issued by ").append(license.getIssuedBy())
+                .append(" [").append(license.getIssuedOn())
+                .append(" - ").append(license.isUnlimited() ? "unlimited" : license.getExpiresOn())
+                .append(']').append(SEPARATOR);
+    }
+}
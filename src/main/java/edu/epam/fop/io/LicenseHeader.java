@@ -0,0 +1,152 @@
+package edu.epam.fop.io;
+
+/**
+ * Result of a single pass over a license header. Holds the raw field values together with
+ * the structural state (start/end markers) and the first validation failure, so callers can
+ * answer "is it a license", "is it complete" and "what does it say" without re-reading the file.
+ */
+final class LicenseHeader {
+    static final String LICENSE = "License";
+    static final String ISSUED_BY = "Issued by";
+    static final String ISSUED_ON = "Issued on";
+    static final String EXPIRES_ON = "Expires on";
+
+    private boolean started;
+    private boolean terminated;
+    private boolean archive;
+    private int line;
+    private String error;
+    private Diagnostic.Type errorType;
+    private int errorLine;
+
+    private String licenseName;
+    private String issuedBy;
+    private String issuedOn;
+    private String expiresOn;
+
+    void start() {
+        started = true;
+    }
+
+    void terminate() {
+        terminated = true;
+    }
+
+    // The file is a zip archive, its entries are not looked at
+    void archive() {
+        archive = true;
+    }
+
+    // Called by the parser for every line it reads, problems are reported at the current line
+    void nextLine() {
+        line++;
+    }
+
+    void fail(Diagnostic.Type type, String message) {
+        if (error == null) {
+            error = message;
+            errorType = type;
+            errorLine = line;
+        }
+    }
+
+    // Takes over the values and the first failure of a separately tokenized body
+    void merge(LicenseHeader body) {
+        licenseName = body.licenseName;
+        issuedBy = body.issuedBy;
+        issuedOn = body.issuedOn;
+        expiresOn = body.expiresOn;
+        if (error == null && body.error != null) {
+            error = body.error;
+            errorType = body.errorType;
+            errorLine = body.errorLine;
+        }
+    }
+
+    // Values of cached headers are shared by many licenses, equal ones should be one String
+    void intern() {
+        licenseName = licenseName == null ? null : licenseName.intern();
+        issuedBy = issuedBy == null ? null : issuedBy.intern();
+        issuedOn = issuedOn == null ? null : issuedOn.intern();
+        expiresOn = expiresOn == null ? null : expiresOn.intern();
+    }
+
+    void setLicenseName(String licenseName) {
+        this.licenseName = licenseName;
+    }
+
+    void setIssuedBy(String issuedBy) {
+        this.issuedBy = issuedBy;
+    }
+
+    void setIssuedOn(String issuedOn) {
+        this.issuedOn = issuedOn;
+    }
+
+    void setExpiresOn(String expiresOn) {
+        this.expiresOn = expiresOn;
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    boolean isTerminated() {
+        return terminated;
+    }
+
+    boolean isArchive() {
+        return archive;
+    }
+
+    String getError() {
+        return error;
+    }
+
+    Diagnostic.Type getErrorType() {
+        return errorType;
+    }
+
+    int getErrorLine() {
+        return errorLine;
+    }
+
+    // Last line read so far
+    int getLine() {
+        return line;
+    }
+
+    // Name of the first mandatory property which is absent, or null if all of them are present
+    String missingProperty() {
+        if (licenseName == null) {
+            return LICENSE;
+        }
+        if (issuedBy == null) {
+            return ISSUED_BY;
+        }
+        if (issuedOn == null) {
+            return ISSUED_ON;
+        }
+        return null;
+    }
+
+    boolean isValid() {
+        return started && terminated && error == null && missingProperty() == null;
+    }
+
+    String getLicenseName() {
+        return licenseName;
+    }
+
+    String getIssuedBy() {
+        return issuedBy;
+    }
+
+    String getIssuedOn() {
+        return issuedOn;
+    }
+
+    String getExpiresOn() {
+        return expiresOn;
+    }
+}
@@ -0,0 +1,311 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Read-only in-memory index of licenses, answering "which files are under license X", "what did issuer Y
+ * issue" and "what expires before Z" without going back to the files or the output.
+ *
+ * <p>Records are stored column by column in primitive arrays. License names, issuers and directories are
+ * dictionary encoded, so a record costs a few ints plus its file name. Dates are kept as epoch days, which
+ * the header's four digit years keep well inside an int; query bounds outside that range are clamped to it,
+ * so no date ever overflows. Name and issuer lookups
+ * go through posting lists, expiry ranges through a binary search over the records sorted by expiry,
+ * so a query costs microseconds whatever the size of the index. Query results are views which create
+ * {@link License} objects only when they are read.
+ */
+public final class LicenseIndex {
+    // Sorts after every real date
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final String[] names;
+    private final String[] issuers;
+    private final String[] directories;
+    private final int size;
+    private final int[] nameIds;
+    private final int[] issuerIds;
+    private final int[] directoryIds;
+    private final String[] fileNames;
+    private final int[] issuedOn;
+    private final int[] expiresOn;
+    private final Map<String, Integer> nameLookup;
+    private final Map<String, Integer> issuerLookup;
+    // Rows of every name and issuer, CSR style: rows of id i are rows[offsets[i]] until rows[offsets[i + 1]]
+    private final int[] nameOffsets;
+    private final int[] nameRows;
+    private final int[] issuerOffsets;
+    private final int[] issuerRows;
+    // Rows ordered by expiry, and the expiry of each of them in that order
+    private final int[] expiryRows;
+    private final int[] expiryKeys;
+
+    private LicenseIndex(Builder builder) {
+        size = builder.size;
+        names = builder.names.values();
+        issuers = builder.issuers.values();
+        directories = builder.directories.values();
+        nameLookup = builder.names.lookup();
+        issuerLookup = builder.issuers.lookup();
+        nameIds = Arrays.copyOf(builder.nameIds, size);
+        issuerIds = Arrays.copyOf(builder.issuerIds, size);
+        directoryIds = Arrays.copyOf(builder.directoryIds, size);
+        fileNames = Arrays.copyOf(builder.fileNames, size);
+        issuedOn = Arrays.copyOf(builder.issuedOn, size);
+        expiresOn = Arrays.copyOf(builder.expiresOn, size);
+
+        nameOffsets = new int[names.length + 1];
+        nameRows = postings(nameIds, nameOffsets);
+        issuerOffsets = new int[issuers.length + 1];
+        issuerRows = postings(issuerIds, issuerOffsets);
+
+        expiryRows = sortByExpiry(expiresOn, size);
+        expiryKeys = new int[size];
+        for (int i = 0; i < size; i++) {
+            expiryKeys[i] = expiresOn[expiryRows[i]];
+        }
+    }
+
+    // Indexes the given licenses, e.g. LicenseIndex.of(LicenseReader.licenses(root))
+    public static LicenseIndex of(Iterable<License> licenses) {
+        if (licenses == null)
+            throw new IllegalArgumentException("Licenses cant be null!");
+        Builder builder = new Builder();
+        for (License license : licenses) {
+            builder.add(license);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public License get(int row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        int expires = expiresOn[row];
+        String directory = directories[directoryIds[row]];
+        File file = directory.isEmpty() ? new File(fileNames[row]) : new File(directory, fileNames[row]);
+        return new License(file, names[nameIds[row]],
+                issuers[issuerIds[row]], text(issuedOn[row]), expires == UNLIMITED ? null : text(expires));
+    }
+
+    // Every license, in the order they were added
+    public List<License> all() {
+        return new Rows(null, 0, size);
+    }
+
+    public List<License> withName(String name) {
+        Integer id = name == null ? null : nameLookup.get(name);
+        return id == null ? Collections.emptyList() : new Rows(nameRows, nameOffsets[id], nameOffsets[id + 1]);
+    }
+
+    public List<License> issuedBy(String issuer) {
+        Integer id = issuer == null ? null : issuerLookup.get(issuer);
+        return id == null ? Collections.emptyList() : new Rows(issuerRows, issuerOffsets[id], issuerOffsets[id + 1]);
+    }
+
+    // Licenses expiring on or after from and before to, soonest first; unlimited ones never expire
+    public List<License> expiringBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("Dates cant be null!");
+        int start = lowerBound(expiryKeys, key(from));
+        int end = Math.max(start, lowerBound(expiryKeys, key(to)));
+        return new Rows(expiryRows, start, end);
+    }
+
+    // Licenses expiring before the given date, soonest first
+    public List<License> expiringBefore(LocalDate date) {
+        if (date == null)
+            throw new IllegalArgumentException("Date cant be null!");
+        return new Rows(expiryRows, 0, lowerBound(expiryKeys, key(date)));
+    }
+
+    public List<License> unlimited() {
+        return new Rows(expiryRows, lowerBound(expiryKeys, UNLIMITED), size);
+    }
+
+    // Distinct license names, sorted
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(nameLookup.keySet()));
+    }
+
+    // Distinct issuers, sorted
+    public Set<String> getIssuers() {
+        return Collections.unmodifiableSet(new TreeSet<>(issuerLookup.keySet()));
+    }
+
+    @Override
+    public String toString() {
+        return "LicenseIndex[licenses=" + size + ", names=" + names.length + ", issuers=" + issuers.length + "]";
+    }
+
+    private static int[] postings(int[] ids, int[] offsets) {
+        for (int id : ids) {
+            offsets[id + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] rows = new int[ids.length];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int row = 0; row < ids.length; row++) {
+            rows[next[ids[row]]++] = row;
+        }
+        return rows;
+    }
+
+    // Stable sort of the rows by expiry; dates are packed into the high half of a long, rows into the low one
+    private static int[] sortByExpiry(int[] expiresOn, int size) {
+        long[] packed = new long[size];
+        for (int row = 0; row < size; row++) {
+            packed[row] = (long) expiresOn[row] << 32 | row;
+        }
+        Arrays.sort(packed);
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) packed[i];
+        }
+        return rows;
+    }
+
+    // First position holding a value not less than key
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Epoch day of a query bound, clamped so dates past every stored one still sort before UNLIMITED
+    private static int key(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(date.toEpochDay(), UNLIMITED));
+    }
+
+    // Header dates have four digit years, the yyyy-mm-dd text of LocalDate
+    private static String text(int day) {
+        return LocalDate.ofEpochDay(day).toString();
+    }
+
+    // A slice of a row list, materialized one License at a time
+    private final class Rows extends AbstractList<License> {
+        private final int[] rows;
+        private final int start;
+        private final int end;
+
+        Rows(int[] rows, int start, int end) {
+            this.rows = rows;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public License get(int index) {
+            if (index < 0 || index >= end - start)
+                throw new IndexOutOfBoundsException("Index " + index + " of " + (end - start));
+            return LicenseIndex.this.get(rows == null ? start + index : rows[start + index]);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Collects licenses for an index, e.g. during a scan through {@link ScanOptions#index(Builder)}.
+     * Safe to feed from several threads; {@link #build()} takes a snapshot and may be called again later.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        // All the state below is guarded by this
+        private final Dictionary names = new Dictionary();
+        private final Dictionary issuers = new Dictionary();
+        private final Dictionary directories = new Dictionary();
+        private int size;
+        private int[] nameIds = new int[INITIAL_CAPACITY];
+        private int[] issuerIds = new int[INITIAL_CAPACITY];
+        private int[] directoryIds = new int[INITIAL_CAPACITY];
+        private String[] fileNames = new String[INITIAL_CAPACITY];
+        private int[] issuedOn = new int[INITIAL_CAPACITY];
+        private int[] expiresOn = new int[INITIAL_CAPACITY];
+
+        public synchronized Builder add(License license) {
+            if (license == null)
+                throw new IllegalArgumentException("License cant be null!");
+            if (size == nameIds.length) {
+                grow();
+            }
+            File file = license.getFile();
+            String directory = file.getParent();
+            nameIds[size] = names.id(license.getName());
+            issuerIds[size] = issuers.id(license.getIssuedBy());
+            directoryIds[size] = directories.id(directory == null ? "" : directory);
+            fileNames[size] = file.getName();
+            issuedOn[size] = (int) license.getIssuedOnEpochDay();
+            expiresOn[size] = license.isUnlimited() ? UNLIMITED : (int) license.getExpiresOnEpochDay();
+            size++;
+            return this;
+        }
+
+        public synchronized int size() {
+            return size;
+        }
+
+        public synchronized LicenseIndex build() {
+            return new LicenseIndex(this);
+        }
+
+        private void grow() {
+            int capacity = nameIds.length * 2;
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            issuerIds = Arrays.copyOf(issuerIds, capacity);
+            directoryIds = Arrays.copyOf(directoryIds, capacity);
+            fileNames = Arrays.copyOf(fileNames, capacity);
+            issuedOn = Arrays.copyOf(issuedOn, capacity);
+            expiresOn = Arrays.copyOf(expiresOn, capacity);
+        }
+    }
+
+    // Distinct strings numbered in order of first appearance, every one of them is kept once
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+
+        Map<String, Integer> lookup() {
+            return new HashMap<>(ids);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks a tree and parses its files on demand, one license per {@link #next()}.
+ *
+ * <p>Files come from a {@link FileWalker}, so memory does not grow with the size of the tree,
+ * and a caller which stops iterating stops the scan. Failures follow collectLicenses:
+ * a top level file which is not a valid license is skipped, a nested one or an unusable directory
+ * throws {@link IllegalArgumentException} from {@link #hasNext()}/{@link #next()}, which also ends the walk.
+ */
+final class LicenseIterator implements Iterator<License> {
+    private final File root;
+    private final ScanOptions options;
+    private final ScanSession session;
+    // Whether the scan is over with the walk, otherwise the caller finishes the session once it is done
+    private final boolean ownsSession;
+    private FileWalker walker;
+    private License next;
+    private boolean finished;
+
+    LicenseIterator(File root, ScanOptions options, ScanSession session, boolean ownsSession) {
+        this.root = root;
+        this.options = options;
+        this.session = session;
+        this.ownsSession = ownsSession;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try (WalkStep step = new WalkStep(this)) {
+                next = advance();
+                step.done();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("An error occurred while processing files.");
+            }
+            if (next == null) {
+                finished = true;
+                if (ownsSession) {
+                    session.finish();
+                }
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public License next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        License license = next;
+        next = null;
+        return license;
+    }
+
+    // Parses files until one of them is a license, null once the whole tree is done
+    private License advance() throws IOException {
+        if (walker == null) {
+            walker = new FileWalker(root, options, session);
+        }
+        File file;
+        while ((file = walker.next()) != null) {
+            License license = session.process(file, walker.isTopLevel());
+            if (license != null) {
+                return license;
+            }
+        }
+        return null;
+    }
+
+    // Drops the listings of the walk once it is over, whether it ran out of files or failed
+    void endWalk(boolean failed) {
+        if (failed) {
+            finished = true;
+        }
+        if (walker != null && (failed || next == null)) {
+            walker.close();
+        }
+    }
+}
+
+// One step of the walk, a step which throws ends the walk so the iterator does not go on after a failure
+final class WalkStep implements AutoCloseable {
+    private final LicenseIterator iterator;
+    private boolean done;
+
+    WalkStep(LicenseIterator iterator) {
+        this.iterator = iterator;
+    }
+
+    void done() {
+        done = true;
+    }
+
+    @Override
+    public void close() {
+        iterator.endWalk(!done);
+    }
+}
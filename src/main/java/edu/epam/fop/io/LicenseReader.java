@@ -1,216 +1,21 @@
 package edu.epam.fop.io;
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-
-class ProcessFile {
-    private static File in;
-    private static  File out;
-    private static final String LICENSE_START_MARKER = "---";
-    private static final String LICENSE_END_MARKER = "---";
-
-    public ProcessFile(File root) {
-        in = root;
-    }
-
-
-
-    private static String parseFile(File in) {
-        String res = "";
-        Map<String, String> licenseProperties = new HashMap<>();
-        boolean inLicenseBlock = false;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(in))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (LICENSE_START_MARKER.equals(line)) {
-                    inLicenseBlock = true;
-                } else if (LICENSE_END_MARKER.equals(line)) {
-                    if (!inLicenseBlock) {
-                        throw new IllegalArgumentException("Invalid license file: " + in.getName());
-                    }
-                    break;
-                } else if (inLicenseBlock && line.contains(":")) {
-                    String[] parts = line.split(":", 2);
-                    if (parts.length == 2) {
-                        String key = parts[0].trim();
-                        String value = parts[1].trim();
-                        licenseProperties.put(key, value);
-                    }
-                }
-            }
-
-            if (!inLicenseBlock) {
-                throw new IllegalArgumentException("Missing license block in file: " + in.getName());
-            }
-
-            if (!licenseProperties.containsKey("License")) {
-                throw new IllegalArgumentException("Missing License in file: " + in.getName());
-            }
-
-            if (!licenseProperties.containsKey("Issued by")) {
-                throw new IllegalArgumentException("Missing Issued by in file: " + in.getName());
-            }
-
-            if (!licenseProperties.containsKey("Issued on")) {
-                throw new IllegalArgumentException("Missing Issued on in file: " + in.getName());
-            }
-
-            String licenseName = licenseProperties.get("License");
-            String issuedBy = licenseProperties.get("Issued by");
-            String issuedOn = licenseProperties.get("Issued on");
-            String expiresOn = licenseProperties.getOrDefault("Expires on", "unlimited");
-
-            res = String.format(
-                    "License for %s is %s issued by %s [%s - %s]%n",
-                    in.getName(), licenseName, issuedBy, issuedOn, expiresOn
-            );
-
-        } catch (Exception e) {
-            System.err.println("Error processing file: " + in.getAbsolutePath() + " - " + e.getMessage());
-        }
-
-        return res;
-    }
-
-
-
-
-
-    private static boolean isLicenseFile(File file) {
-        boolean hasStartMarker = false;
-        boolean hasEndMarker = false;
-
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().equals(LICENSE_START_MARKER)) {
-                    if (!hasStartMarker) {
-                        hasStartMarker = true;
-                    } else {
-                        hasEndMarker = true;
-                        break;
-                    }
-                }
-            }
-
-            if (!hasStartMarker || !hasEndMarker) {
-                throw new IllegalArgumentException("Invalid license file: " + file.getAbsolutePath());
-            }
-
-        } catch (Exception e) { // Handle unchecked exceptions
-            throw new IllegalArgumentException("Error reading file: " + file.getAbsolutePath() + " - " + e.getMessage());
-        }
-
-        return hasStartMarker && hasEndMarker;
-    }
-
-    private static boolean checkDateFormat(String date) {
-        // Check if the date is in the format yyyy-mm-dd and contains only digits and "-"
-        return date.matches("\\d{4}-\\d{2}-\\d{2}");
-    }
-
-    private static boolean checkAllDependencies(File file) {
-        boolean hasLicense = false;
-        boolean hasIssuedOn = false;
-        boolean hasIssuedBy = false;
-        boolean hasExpiresOn = false;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith("License:")) {
-                    hasLicense = true;
-                } else if (line.startsWith("Issued on:")) {
-                    hasIssuedOn = true;
-                    // Extract date and check format
-                    String[] parts = line.split(":");
-                    if (parts.length > 1) {
-                        String date = parts[1].trim();
-                        if (!checkDateFormat(date)) {
-                            return false; // Invalid date format
-                        }
-                    }
-                } else if (line.startsWith("Issued by:")) {
-                    hasIssuedBy = true;
-                } else if (line.startsWith("Expires on:")) {
-                    hasExpiresOn = true;
-                    // Extract date and check format
-                    String[] parts = line.split(":");
-                    if (parts.length > 1) {
-                        String date = parts[1].trim();
-                        if (!checkDateFormat(date)) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Error reading file: " + file.getAbsolutePath() + " - " + e.getMessage());
-        }
-
-        return hasLicense && hasIssuedOn && hasIssuedBy;
-    }
-
-    public static String processFile() {
-        String licence = "";
-        if(isLicenseFile(in)){
-            if(checkAllDependencies(in)) {
-                licence = parseFile(in);
-            } else {
-                throw new IllegalArgumentException("Missing item");
-            }
-        }else{
-            throw new IllegalArgumentException("File is not licence");
-        }
-
-        if (!Objects.equals(licence, " ")){
-            return licence;
-        }
-        throw new IllegalArgumentException("File is not licence");
-    }
-}
+import java.util.Iterator;
 
 public class LicenseReader {
-    private static void processDirectory(File dir, BufferedWriter bw) {
-        if (!dir.exists() || !dir.canExecute()) {
-            throw new IllegalArgumentException("Directory is not executable or does not exist.");
-            //return;
-        }
-
-        File[] items = dir.listFiles();
-        if (items == null) {
-            throw new IllegalArgumentException();
-            //return; // Handle cases where permissions or other issues prevent reading
-        }
-
-        for (File item : items) {
-            if (item.isDirectory()) {
-                processDirectory(item, bw); // Recursive traversal
-            } else if (item.isFile()) {
-                // Process individual files
-                String result = new ProcessFile(item).processFile();
-                if (result != null) {
-                    try {
-                        bw.write(result); // Write the processed result to the output file
-                    } catch (IOException e) {
-                        throw new IllegalArgumentException("Error writing to the output file: " + e.getMessage());
-                    }
-                }
-            }
-        }
-    }
-
     public static void validateFiles(File root, File outputFile) {
         // collectLicenses метод повинен підтвердити, що root:
         //не нульовий root, outputFile
         if (root == null || outputFile == null)
             throw new IllegalArgumentException("Path cant be null!");
 
+        validateRoot(root);
+    }
+
+    private static void validateRoot(File root) {
+        if (root == null)
+            throw new IllegalArgumentException("Path cant be null!");
+
         //існує, читабельний
         if (!root.exists() || !root.canRead())
             throw new IllegalArgumentException("Path does not exist or cant be readable!");
@@ -221,54 +26,120 @@ public class LicenseReader {
     }
 
     public static void collectLicenses(File root, File outputFile) {
-        validateFiles(root, outputFile);
-
-        try {
-            // Clear the output file before writing new data
-            BufferedWriter bw = Files.newBufferedWriter(outputFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            // Process files in the root directory
-            if (root.isDirectory()) {
-                File[] items = root.listFiles();
-                if (items == null) {
-                    return; // Handle cases where permissions or other issues prevent reading
-                }
-
-                for (File item : items) {
-                    if (item.isDirectory()) {
-                        processDirectory(item, bw); // Recursive traversal
-                    } else if (item.isFile()) {
+        collectLicenses(root, outputFile, new ScanOptions());
+    }
 
-                        // Process individual files
-                        ProcessFile p = new ProcessFile(item);
-                        try {
-                            String result = p.processFile();
-                            if (result != null) {
-                                bw.write(result); // Write the processed result to the output file
-                            }
-                        } catch (IllegalArgumentException e) {
-                            // Ignore non-license files and continue processing
-                            //throw new IllegalArgumentException(e);
-                        }
-                    }
-                }
+    /**
+     * Same as {@link #collectLicenses(File, File)}, tuned by options. Files the error policy lets the scan
+     * skip are listed in the returned report.
+     */
+    public static ScanReport collectLicenses(File root, File outputFile, ScanOptions options) {
+        validateFiles(root, outputFile);
+        if (options == null)
+            throw new IllegalArgumentException("Options cant be null!");
+        if (options.isShardedOutput() && options.isOrdered())
+            throw new IllegalArgumentException("Sharded output cant keep the traversal order, sort it instead!");
+        if (options.isKeepShards() && options.getFormatter().isAggregating())
+            throw new IllegalArgumentException("Kept shards cant split an aggregating formatter's output!");
+        if (options.getCheckpointFile() != null
+                && (options.getWorkers() > 1 || options.isShardedOutput() || options.isAtomicOutput()))
+            throw new IllegalArgumentException("Checkpointed scans run on one thread and append to the output!");
+        // Nothing but the walk position and the output length survives a checkpoint
+        if (options.getCheckpointFile() != null && (options.getCacheFile() != null || options.getIndex() != null
+                || options.getExpiryReport() != null || options.getFormatter().isAggregating()))
+            throw new IllegalArgumentException("Checkpointed scans cant restore a cache, index, expiry report"
+                    + " or aggregating formatter!");
+        // Formatters may keep per scan state, e.g. the root paths are relative to
+        options = options.copy().formatter(options.getFormatter().forScan(root));
+        ScanSession session = new ScanSession(options);
+        boolean checkpointed = options.getCheckpointFile() != null && root.isDirectory();
+        Checkpoint resumed = checkpointed ? Checkpoint.resumable(root, outputFile, options) : null;
+        // Kept shards get the formatter's start and finish, the output only lists them
+        boolean manifest = options.isShardedOutput() && options.isKeepShards() && root.isDirectory();
+        // FileWriter truncates an existing output file, a resumed scan appends to what its checkpoint kept
+        try (OutputTarget target = OutputTarget.of(outputFile, options.isAtomicOutput());
+             BufferedWriter bw = new BufferedWriter(new FileWriter(target.getFile(), resumed != null),
+                     options.getBufferSize())) {
+            OutputSink sink = OutputSink.of(bw, options);
+            if (resumed == null && !manifest) {
+                sink.start();
+            }
+            if (checkpointed) {
+                Checkpoint.collectLicenses(root, outputFile, sink, options, session, resumed);
+            } else if (options.isShardedOutput() && root.isDirectory()) {
+                ShardedOutput.collectLicenses(root, outputFile, sink, options, session);
+            } else if (options.getPipelineDepth() > 0 && options.getWorkers() > 1 && root.isDirectory()) {
+                ScanPipeline.collectLicenses(root, sink, options, session);
+            } else if (options.getWorkers() > 1 && root.isDirectory()) {
+                ParallelScanner.collectLicenses(root, sink, options, session);
+            } else {
+                scan(root, sink, options, session);
+            }
+            if (manifest) {
+                sink.flush();
             } else {
-                // Process single file
-                ProcessFile pr = new ProcessFile(root);
-                try {
-                    bw.write(pr.processFile());
-                } catch (IllegalArgumentException e) {
-                    // Ignore non-license files
-                    throw new IllegalArgumentException(e);
-                }
+                sink.finish();
             }
-            bw.close(); // Close the writer after writing all data
+            target.complete();
         } catch (IOException e) {
             // Handle the potential exception
             throw new IllegalArgumentException("An error occurred while processing files.");
-            //e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException("Interrupted while processing files.");
         }
+        if (checkpointed) {
+            options.getCheckpointFile().delete(); // Complete, the next scan starts from scratch
+        }
+        // Listeners hear of the end once the output is in place
+        session.finish();
+        return session.getReport();
     }
-}
 
+    /**
+     * Licenses under root, walked and parsed lazily while iterating. Breaking out of the loop stops the scan,
+     * e.g. at the first expired license. Use {@code StreamSupport.stream(licenses.spliterator(), false)}
+     * for a {@code Stream<License>}. Worker and output options are ignored, files the error policy skips
+     * are left out silently.
+     */
+    public static Iterable<License> licenses(File root, ScanOptions options) {
+        validateRoot(root);
+        if (options == null)
+            throw new IllegalArgumentException("Options cant be null!");
+        return () -> new LicenseIterator(root, options, new ScanSession(options), true);
+    }
+
+    /**
+     * Classifies every license under root into the report in a single streaming pass and writes the report,
+     * without writing the license list itself. Worker and output options are ignored.
+     */
+    public static ExpiryReport reportExpiry(File root, File reportFile, ScanOptions options, ExpiryReport report) {
+        if (report == null)
+            throw new IllegalArgumentException("Report cant be null!");
+        validateFiles(root, reportFile);
+        if (options == null)
+            throw new IllegalArgumentException("Options cant be null!");
+        // The session classifies every license it finds, the loop only drives the walk
+        options = options.copy().expiryReport(report);
+        ScanSession session = new ScanSession(options);
+        Iterator<License> licenses = new LicenseIterator(root, options, session, false);
+        while (licenses.hasNext()) {
+            licenses.next();
+        }
+        report.write(reportFile);
+        session.finish();
+        return report;
+    }
 
+    public static Iterable<License> licenses(File root) {
+        return licenses(root, new ScanOptions());
+    }
 
+    private static void scan(File root, OutputSink sink, ScanOptions options, ScanSession session)
+            throws IOException {
+        Iterator<License> licenses = new LicenseIterator(root, options, session, false);
+        while (licenses.hasNext()) {
+            sink.write(licenses.next()); // Write the processed result to the output file
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact snapshot of a set of licenses, reloaded much faster than the text output can be re-parsed.
+ *
+ * <p>Layout: a magic line, a body and a trailer line {@code #end <licenses> <strings> <checksum>} which
+ * must be the last line. The body is a stream of entries: {@code S} defines the next string of the
+ * dictionary (license names, issuers, directories and file names), {@code R} is a license made of string
+ * ids and dates. Strings are defined right before their first use, so both writing and reading take one
+ * pass and hold only the dictionary. Numbers are varints of 5 bits per char, dates are {@code yyyymmdd}
+ * values stored as the difference to the previous license. Everything is plain ASCII, so the snapshot
+ * survives any platform charset. A snapshot which does not match its trailer is rejected.
+ */
+public final class LicenseSnapshot {
+    private static final String MAGIC = "#license-snapshot v1";
+    private static final String TRAILER = "#end ";
+    private static final char STRING = 'S';
+    private static final char RECORD = 'R';
+    private static final char ESCAPE = '\\';
+    // Varint digits are the 64 chars from '0' to 'o': 5 bits of data and a continuation bit
+    private static final char DIGIT_BASE = '0';
+    private static final int MORE = 32;
+    private static final int CHUNK = 1 << 16;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private LicenseSnapshot() {
+    }
+
+    // Streams the licenses into the snapshot, e.g. straight from LicenseReader.licenses(root)
+    public static void write(File snapshot, Iterable<License> licenses) {
+        if (snapshot == null || licenses == null)
+            throw new IllegalArgumentException("Snapshot and licenses cant be null!");
+        try (OutputTarget target = OutputTarget.of(snapshot, true);
+             BufferedWriter bw = new BufferedWriter(new FileWriter(target.getFile()), CHUNK)) {
+            Encoder encoder = Encoder.of(bw);
+            bw.write(MAGIC);
+            bw.newLine();
+            for (License license : licenses) {
+                encoder.write(license);
+            }
+            encoder.flush();
+            bw.write('\n'); // The end of the body is always a bare LF, whatever the platform separator
+            bw.write(TRAILER + encoder.records + " " + encoder.strings.size() + " " + Long.toHexString(encoder.checksum));
+            bw.newLine();
+            target.complete();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write snapshot: " + snapshot.getAbsolutePath());
+        }
+    }
+
+    public static LicenseIndex load(File snapshot) {
+        if (snapshot == null)
+            throw new IllegalArgumentException("Snapshot cant be null!");
+        LicenseIndex.Builder builder = new LicenseIndex.Builder();
+        try (BufferedReader br = new BufferedReader(new FileReader(snapshot), CHUNK)) {
+            if (!MAGIC.equals(br.readLine())) {
+                throw new IllegalArgumentException("Not a license snapshot: " + snapshot.getAbsolutePath());
+            }
+            Decoder decoder = Decoder.of(br);
+            if (!decoder.readBody(builder)) {
+                throw new IllegalArgumentException("Corrupted license snapshot: " + snapshot.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read snapshot: " + snapshot.getAbsolutePath());
+        }
+        return builder.build();
+    }
+
+    // "2020-01-31" to 20200131, the header only lets digit dates of that shape through
+    private static int dateKey(String date) {
+        return Integer.parseInt(date, 0, 4, 10) * 10_000 + Integer.parseInt(date, 5, 7, 10) * 100
+                + Integer.parseInt(date, 8, 10, 10);
+    }
+
+    private static String dateText(int key) {
+        char[] chars = new char[10];
+        int value = key;
+        for (int i = 9; i >= 0; i--) {
+            if (i == 4 || i == 7) {
+                chars[i] = '-';
+            } else {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+        return new String(chars);
+    }
+
+    private static int zigzag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static long hash(long h, char c) {
+        return (h ^ c) * FNV_PRIME;
+    }
+
+    private static final class Encoder {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final char[] buf = new char[CHUNK];
+        private int pos;
+        private long checksum = FNV_OFFSET;
+        private long records;
+        private int lastIssued;
+        private BufferedWriter out;
+
+        static Encoder of(BufferedWriter out) {
+            Encoder encoder = new Encoder();
+            encoder.out = out;
+            return encoder;
+        }
+
+        void write(License license) throws IOException {
+            File file = license.getFile();
+            String directory = file.getParent();
+            int dirId = id(directory == null ? "" : directory);
+            int fileId = id(file.getName());
+            int nameId = id(license.getName());
+            int issuerId = id(license.getIssuedBy());
+            int issued = dateKey(license.getIssuedOn());
+            append(RECORD);
+            varint(dirId);
+            varint(fileId);
+            varint(nameId);
+            varint(issuerId);
+            varint(zigzag(issued - lastIssued));
+            varint(license.isUnlimited() ? 0 : 1 + zigzag(dateKey(license.getExpiresOn()) - issued));
+            lastIssued = issued;
+            records++;
+        }
+
+        private int id(String value) throws IOException {
+            Integer id = strings.get(value);
+            if (id != null) {
+                return id;
+            }
+            append(STRING);
+            varint(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= ' ' && c <= '~' && c != ESCAPE) {
+                    append(c);
+                } else {
+                    append(ESCAPE);
+                    varint(c);
+                }
+            }
+            strings.put(value, strings.size());
+            return strings.size() - 1;
+        }
+
+        private void varint(int value) throws IOException {
+            int v = value;
+            while ((v & ~(MORE - 1)) != 0) {
+                append((char) (DIGIT_BASE + (v & (MORE - 1) | MORE)));
+                v >>>= 5;
+            }
+            append((char) (DIGIT_BASE + v));
+        }
+
+        private void append(char c) throws IOException {
+            if (pos == buf.length) {
+                flush();
+            }
+            checksum = hash(checksum, c);
+            buf[pos++] = c;
+        }
+
+        void flush() throws IOException {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    private static final class Decoder {
+        private static final int EOF = -1;
+
+        private final List<String> strings = new ArrayList<>();
+        private final char[] buf = new char[CHUNK];
+        private int pos;
+        private int limit;
+        private long checksum = FNV_OFFSET;
+        private BufferedReader in;
+
+        static Decoder of(BufferedReader in) {
+            Decoder decoder = new Decoder();
+            decoder.in = in;
+            return decoder;
+        }
+
+        // False as soon as something does not add up, nothing is trusted before the trailer matched
+        boolean readBody(LicenseIndex.Builder builder) throws IOException {
+            long records = 0;
+            int lastIssued = 0;
+            int tag;
+            while ((tag = next()) != '\n') {
+                if (tag == STRING) {
+                    String value = string();
+                    if (value == null) {
+                        return false;
+                    }
+                    strings.add(value);
+                } else if (tag == RECORD) {
+                    String directory = string(varint());
+                    String fileName = string(varint());
+                    String name = string(varint());
+                    String issuer = string(varint());
+                    int issued = lastIssued + unzigzag(varint());
+                    int expires = varint();
+                    if (directory == null || fileName == null || name == null || issuer == null || expires < 0) {
+                        return false;
+                    }
+                    File file = directory.isEmpty() ? new File(fileName) : new File(directory, fileName);
+                    builder.add(new License(file, name, issuer, dateText(issued),
+                            expires == 0 ? null : dateText(issued + unzigzag(expires - 1))));
+                    lastIssued = issued;
+                    records++;
+                } else {
+                    return false;
+                }
+            }
+            String expected = TRAILER + records + " " + strings.size() + " " + Long.toHexString(checksum);
+            return expected.equals(trailer());
+        }
+
+        // The trailer line, null when anything follows it
+        private String trailer() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = read()) != EOF && c != '\n' && c != '\r') {
+                sb.append((char) c);
+            }
+            while (c == '\r' || c == '\n') {
+                c = read();
+            }
+            return c == EOF ? sb.toString() : null;
+        }
+
+        private String string() throws IOException {
+            int length = varint();
+            if (length < 0) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                int c = next();
+                if (c == ESCAPE) {
+                    c = varint();
+                }
+                if (c < 0 || c > Character.MAX_VALUE) {
+                    return null;
+                }
+                sb.append((char) c);
+            }
+            return sb.toString();
+        }
+
+        private String string(int id) {
+            return id >= 0 && id < strings.size() ? strings.get(id) : null;
+        }
+
+        // Negative when the digits are not a valid varint
+        private int varint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 5) {
+                int digit = next() - DIGIT_BASE;
+                if (digit < 0 || digit >= 2 * MORE) {
+                    return -1;
+                }
+                value |= (digit & (MORE - 1)) << shift;
+                if ((digit & MORE) == 0) {
+                    return value;
+                }
+            }
+            return -1;
+        }
+
+        // Next body char, EOF at the end of the file; every body char goes into the checksum
+        private int next() throws IOException {
+            int c = read();
+            if (c != EOF && c != '\n') {
+                checksum = hash(checksum, (char) c);
+            }
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (pos == limit) {
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return EOF;
+                }
+            }
+            return buf[pos++];
+        }
+    }
+}
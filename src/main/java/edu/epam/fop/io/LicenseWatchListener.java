@@ -0,0 +1,22 @@
+package edu.epam.fop.io;
+
+import java.util.List;
+
+/**
+ * Changes seen by a {@link LicenseWatcher}, once per round with changes. Called on the watcher thread, except
+ * for the first round which {@link LicenseWatcher#start()} runs on its caller's thread. Rounds never overlap.
+ */
+public interface LicenseWatchListener {
+
+    // Licenses which appeared, changed or went away since the previous round, removed ones as they were last seen
+    default void licensesChanged(List<License> added, List<License> updated, List<License> removed) {
+    }
+
+    // A file or directory which can't be used, it is looked at again once it changes
+    default void fileRejected(Diagnostic diagnostic) {
+    }
+
+    // The watcher stopped because of this, e.g. the listener itself threw
+    default void watchFailed(RuntimeException e) {
+    }
+}
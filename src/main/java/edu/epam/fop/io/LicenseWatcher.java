@@ -0,0 +1,308 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the license output of a tree up to date while the tree changes.
+ *
+ * <p>A background thread walks the tree every round and compares each file's size and modification time
+ * with the previous round; only new and changed files are parsed again, with the same {@link ProcessFile}
+ * as a full scan. All changes of a round are published together and the output, if any, is rewritten once
+ * per round through a temporary file, so readers always see a complete output. After the first round, files
+ * modified within the settle time are left for a later round instead of being parsed while they are still
+ * being written; the first round parses every file, one caught mid-write is parsed again once it changes.
+ * New directories are picked up by the walk itself and there are no events to lose, every round looks at
+ * the whole tree. Invalid files never stop the watcher, they are reported to the listener instead.
+ *
+ * <pre>
+ * try (LicenseWatcher watcher = new LicenseWatcher(root, options).output(outputFile).start()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class LicenseWatcher implements AutoCloseable {
+    private static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+    private final File root;
+    private final ScanOptions options;
+    private File outputFile;
+    private LicenseWatchListener listener = new LicenseWatchListener() {
+    };
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private long settleMillis = DEFAULT_INTERVAL_MILLIS;
+
+    // Known files in walk order, only touched by the thread holding the round lock
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Object roundLock = new Object();
+    private long round;
+    // Problems of directories in the last round by path, also guarded by the round lock
+    private Map<String, Diagnostic> directoryProblems = new HashMap<>();
+
+    // Guarded by this
+    private Thread thread;
+    private boolean closed;
+    private RuntimeException failure;
+
+    public LicenseWatcher(File root, ScanOptions options) {
+        if (root == null || !root.isDirectory() || !root.canExecute())
+            throw new IllegalArgumentException("Root must be an executable directory!");
+        if (options == null)
+            throw new IllegalArgumentException("Options cant be null!");
+        this.root = root;
+        // Watching must survive broken files, and every round is already incremental
+        this.options = options.copy().errorPolicy(ErrorPolicy.COLLECT).incremental(null).index(null);
+    }
+
+    // Rewritten after every round with changes, nothing is written without it
+    public LicenseWatcher output(File outputFile) {
+        this.outputFile = outputFile;
+        return this;
+    }
+
+    public LicenseWatcher listener(LicenseWatchListener listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("Listener cant be null!");
+        this.listener = listener;
+        return this;
+    }
+
+    // Pause between two rounds
+    public LicenseWatcher interval(long millis) {
+        if (millis < 1)
+            throw new IllegalArgumentException("Interval must be positive: " + millis);
+        this.intervalMillis = millis;
+        return this;
+    }
+
+    // How long a file must stay unmodified before a round after the first parses it
+    public LicenseWatcher settle(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Settle time cant be negative: " + millis);
+        this.settleMillis = millis;
+        return this;
+    }
+
+    // Runs the first round on the calling thread, listener included, so the output is complete once this returns
+    public synchronized LicenseWatcher start() {
+        if (thread != null || closed)
+            throw new IllegalStateException("Watcher was already started");
+        poll();
+        thread = new Thread(this::watch, "license-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    // Licenses known after the last round
+    public List<License> getLicenses() {
+        synchronized (roundLock) {
+            List<License> licenses = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.license != null) {
+                    licenses.add(entry.license);
+                }
+            }
+            return licenses;
+        }
+    }
+
+    public synchronized RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Stops the background thread and waits for a running round to finish; no round starts afterwards.
+     * Waiting for the round lock can't be interrupted, so close never throws and leaves the interrupt
+     * status of the caller as it was. {@link #join()} also waits for the thread itself to end.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        synchronized (roundLock) {
+            // A round which was running is over once the lock is free
+        }
+    }
+
+    // Closes the watcher and waits for the background thread to end
+    public void join() throws InterruptedException {
+        close();
+        Thread running;
+        synchronized (this) {
+            running = thread;
+        }
+        if (running != null && running != Thread.currentThread()) {
+            running.join();
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void watch() {
+        try (WatchLoop loop = new WatchLoop(this)) {
+            while (loop.awaitNextRound()) {
+                poll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            stopped(e);
+        }
+    }
+
+    synchronized boolean awaitNextRound() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + intervalMillis;
+        long left;
+        while (!closed && (left = deadline - System.currentTimeMillis()) > 0) {
+            wait(left);
+        }
+        return !closed;
+    }
+
+    synchronized void stopped(RuntimeException e) {
+        if (e != null && failure == null) {
+            failure = e;
+            listener.watchFailed(e);
+        }
+        closed = true;
+        notifyAll();
+    }
+
+    // One round: walk, parse what changed, publish and rewrite the output if anything did
+    void poll() {
+        synchronized (roundLock) {
+            if (isClosed()) {
+                return;
+            }
+            round++;
+            // The first round takes every file, so start() returns with a complete output
+            long settled = round == 1 ? Long.MAX_VALUE : System.currentTimeMillis() - settleMillis;
+            List<License> added = new ArrayList<>();
+            List<License> updated = new ArrayList<>();
+            List<License> removed = new ArrayList<>();
+            ScanSession session = new ScanSession(options);
+            ProcessFile processor = options.getProcessor();
+
+            try (FileWalker walker = new FileWalker(root, options, session)) {
+                File file;
+                while ((file = walker.next()) != null) {
+                    String path = file.getPath();
+                    Entry entry = entries.get(path);
+                    long size = file.length();
+                    long modified = file.lastModified();
+                    if (entry == null) {
+                        entry = new Entry();
+                        entries.put(path, entry);
+                    }
+                    entry.round = round;
+                    if (entry.size == size && entry.modified == modified || modified > settled) {
+                        continue; // unchanged, or still being written
+                    }
+                    entry.size = size;
+                    entry.modified = modified;
+                    ProcessResult result = processor.process(file);
+                    License previous = entry.license;
+                    entry.license = result.license();
+                    if (result.license() == null) {
+                        if (result.diagnostic().type() != Diagnostic.Type.NOT_A_LICENSE) {
+                            listener.fileRejected(result.diagnostic());
+                        }
+                        if (previous != null) {
+                            removed.add(previous);
+                        }
+                    } else if (previous == null) {
+                        added.add(result.license());
+                    } else if (!previous.toString().equals(result.license().toString())) {
+                        updated.add(result.license());
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not walk " + root.getAbsolutePath());
+            }
+            // An unusable directory stays so for many rounds, it is reported when it appears or changes
+            Map<String, Diagnostic> problems = new HashMap<>();
+            for (Diagnostic diagnostic : session.getReport().getDiagnostics()) {
+                String path = diagnostic.file().getPath();
+                problems.put(path, diagnostic);
+                if (!diagnostic.equals(directoryProblems.get(path))) {
+                    listener.fileRejected(diagnostic);
+                }
+            }
+            directoryProblems = problems;
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (entry.round != round) {
+                    if (entry.license != null) {
+                        removed.add(entry.license);
+                    }
+                    it.remove();
+                }
+            }
+            if (!added.isEmpty() || !updated.isEmpty() || !removed.isEmpty() || round == 1) {
+                writeOutput();
+                listener.licensesChanged(added, updated, removed);
+            }
+        }
+    }
+
+    private void writeOutput() {
+        if (outputFile == null) {
+            return;
+        }
+        try (OutputTarget target = OutputTarget.of(outputFile, true);
+             BufferedWriter bw = new BufferedWriter(new FileWriter(target.getFile()), options.getBufferSize())) {
+            // A fresh formatter every round, it may aggregate over the licenses it is given
+            OutputSink sink = OutputSink.of(bw, options.copy().formatter(options.getFormatter().forScan(root)));
+            sink.start();
+            for (Entry entry : entries.values()) {
+                if (entry.license != null) {
+                    sink.write(entry.license);
+                }
+            }
+            sink.finish();
+            target.complete();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not write " + outputFile.getAbsolutePath());
+        }
+    }
+
+    private static final class Entry {
+        private long size = -1;
+        private long modified;
+        private long round;
+        private License license;
+    }
+}
+
+// Paces the rounds of the watcher thread and marks the watcher as stopped whenever the thread ends, so
+// close() and getFailure() see it
+final class WatchLoop implements AutoCloseable {
+    private final LicenseWatcher watcher;
+
+    WatchLoop(LicenseWatcher watcher) {
+        this.watcher = watcher;
+    }
+
+    // Waits out the interval, false once the watcher is closed
+    boolean awaitNextRound() throws InterruptedException {
+        return watcher.awaitNextRound();
+    }
+
+    @Override
+    public void close() {
+        watcher.stopped(null);
+    }
+}
@@ -0,0 +1,97 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/**
+ * Batching front of the output writer. Lines are formatted straight into a reusable batch buffer
+ * which is handed to the writer and flushed to the file once it holds enough lines or characters.
+ * Safe to share between threads.
+ */
+final class OutputSink {
+    private final LicenseFormatter formatter;
+    private final int flushLines;
+    private final int flushChars;
+    private final ScanListener listener;
+
+    // All the state below is guarded by this
+    private final StringBuilder batch;
+    private int batchLines;
+    private char[] chunk;
+    private BufferedWriter writer;
+    private long written;
+
+    private OutputSink(ScanOptions options) {
+        this.formatter = options.getFormatter();
+        this.flushLines = options.getFlushLines();
+        this.flushChars = options.getFlushChars();
+        this.listener = options.getListener();
+        this.batch = new StringBuilder(Math.min(flushChars, 1 << 16) + 256);
+        this.chunk = new char[batch.capacity()];
+    }
+
+    static OutputSink of(BufferedWriter writer, ScanOptions options) {
+        OutputSink sink = new OutputSink(options);
+        sink.writer = writer;
+        return sink;
+    }
+
+    LicenseFormatter getFormatter() {
+        return formatter;
+    }
+
+    // Whatever the formatter puts before the first license, e.g. a header row
+    synchronized void start() {
+        formatter.start(batch);
+    }
+
+    // Whatever the formatter puts after the last license, flushed with the rest of the output
+    synchronized void finish() throws IOException {
+        formatter.finish(batch);
+        flush();
+    }
+
+    synchronized void write(License license) throws IOException {
+        formatter.format(license, batch);
+        batchLines++;
+        flushIfFull();
+    }
+
+    // Lines a worker has already formatted on its own
+    synchronized void write(CharSequence lines, int count) throws IOException {
+        batch.append(lines);
+        batchLines += count;
+        flushIfFull();
+    }
+
+    private void flushIfFull() throws IOException {
+        if (batchLines >= flushLines || batch.length() >= flushChars) {
+            flush();
+        }
+    }
+
+    // Characters handed to the writer so far
+    synchronized long getWritten() {
+        return written;
+    }
+
+    synchronized void flush() throws IOException {
+        long start = listener == null ? 0 : System.nanoTime();
+        int length = batch.length();
+        if (length > 0) {
+            // Writer.append(CharSequence) would copy the batch into a new String every time
+            if (chunk.length < length) {
+                chunk = new char[length];
+            }
+            batch.getChars(0, length, chunk, 0);
+            writer.write(chunk, 0, length);
+            written += length;
+            batch.setLength(0);
+            batchLines = 0;
+        }
+        writer.flush();
+        if (listener != null) {
+            listener.outputWritten(length, System.nanoTime() - start);
+        }
+    }
+}
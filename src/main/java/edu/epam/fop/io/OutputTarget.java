@@ -0,0 +1,48 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * Where the output is written. An atomic target writes next to the output file and swaps the result
+ * in on close, only if the scan completed, so nobody ever sees a half-written output file.
+ */
+final class OutputTarget implements AutoCloseable {
+    private final File target;
+    private final File file;
+    private boolean complete;
+
+    private OutputTarget(File target, File file) {
+        this.target = target;
+        this.file = file;
+    }
+
+    static OutputTarget of(File outputFile, boolean atomic) {
+        return new OutputTarget(outputFile, atomic ? new File(outputFile.getPath() + ".tmp") : outputFile);
+    }
+
+    // The file to open for writing
+    File getFile() {
+        return file;
+    }
+
+    void complete() {
+        complete = true;
+    }
+
+    @Override
+    public void close() {
+        if (file == target) {
+            return;
+        }
+        if (!complete) {
+            file.delete();
+        } else if (!replace(file, target)) {
+            throw new IllegalArgumentException("Could not replace " + target.getAbsolutePath());
+        }
+    }
+
+    // Renames source over target, falling back to delete and rename where renaming over a file is not allowed
+    static boolean replace(File source, File target) {
+        return source.renameTo(target) || target.delete() && source.renameTo(target);
+    }
+}
@@ -0,0 +1,378 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-threaded flavour of {@link LicenseReader#collectLicenses(File, File)}.
+ *
+ * <p>The calling thread walks the tree and feeds a bounded queue, worker threads parse the files
+ * and hand the lines to the shared {@link OutputSink}. The unordered sink batches lines
+ * per worker, the ordered one keeps a reorder window so the output follows the traversal order.
+ * Failures are the same as in the sequential scan: top level files which are not valid licenses
+ * are skipped, everything else stops the scan and is rethrown on the calling thread.
+ *
+ * <p>Several roots can share one pool, see {@link LicenseBatch}: they are walked one after the other while
+ * the workers keep parsing, each with its own session, and each output keeps its own reorder window.
+ */
+final class ParallelScanner {
+    private static final int QUEUE_PER_WORKER = 64;
+    private static final String SKIPPED = "";
+
+    private final ScanOptions options;
+    private final int workers;
+    private final boolean ordered;
+    private final int capacity;
+    // One shard per worker when the output is sharded, null otherwise
+    private final ShardSet shards;
+
+    // All the state below is guarded by this, so is the reorder state of the outputs
+    private final ArrayDeque<Task> queue = new ArrayDeque<>();
+    private boolean walking = true;
+    private int liveWorkers;
+    private Exception failure;
+
+    private ParallelScanner(ScanOptions options, ShardSet shards) {
+        this.options = options;
+        this.workers = shards == null ? options.getWorkers() : shards.getFiles().size();
+        this.ordered = options.isOrdered() && shards == null;
+        this.capacity = workers * QUEUE_PER_WORKER;
+        this.shards = shards;
+    }
+
+    static void collectLicenses(File root, OutputSink sink, ScanOptions options, ScanSession session)
+            throws IOException, InterruptedException {
+        collectLicenses(List.of(new Job(root, session, new Output(sink))), options);
+    }
+
+    // Scans the roots in the given order on one pool of options.getWorkers() threads
+    static void collectLicenses(List<Job> jobs, ScanOptions options) throws IOException, InterruptedException {
+        new ParallelScanner(options, null).run(jobs);
+    }
+
+    // Each worker writes the licenses it parses to its own shard, or to sorted runs when the options ask for it
+    static void collectSharded(File root, ShardSet shards, ScanOptions options, ScanSession session)
+            throws IOException, InterruptedException {
+        new ParallelScanner(options, shards).run(List.of(new Job(root, session, null)));
+    }
+
+    private void run(List<Job> jobs) throws IOException, InterruptedException {
+        try (WorkerPool pool = new WorkerPool(this, startWorkers())) {
+            for (Job job : jobs) {
+                if (failure() == null) {
+                    walk(job);
+                }
+            }
+            pool.join();
+        }
+        Exception e = failure();
+        if (e instanceof RuntimeException re) {
+            throw re;
+        }
+        if (e instanceof IOException ioe) {
+            throw ioe;
+        }
+        if (e instanceof InterruptedException ie) {
+            throw ie;
+        }
+    }
+
+    private void walk(Job job) throws InterruptedException {
+        try (FileWalker walker = new FileWalker(job.root(), options, job.session())) {
+            File file;
+            while (failure() == null && (file = walker.next()) != null) {
+                submit(job, file, walker.isTopLevel());
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            fail(e);
+        }
+    }
+
+    private synchronized void submit(Job job, File file, boolean topLevel) throws InterruptedException {
+        Output output = job.output();
+        while (failure == null && (queue.size() >= capacity
+                || ordered && output.nextSeq - output.nextToWrite >= 2L * capacity)) {
+            wait();
+        }
+        if (failure == null) {
+            queue.add(new Task(file, topLevel, output == null ? 0 : output.nextSeq++, job));
+            notifyAll();
+        }
+    }
+
+    // Next task to parse, or null once the walk is over or the scan failed
+    private synchronized Task take() throws InterruptedException {
+        while (queue.isEmpty() && walking && failure == null) {
+            wait();
+        }
+        if (failure != null || queue.isEmpty()) {
+            return null;
+        }
+        Task task = queue.poll();
+        notifyAll();
+        return task;
+    }
+
+    private synchronized void fail(Exception e) {
+        if (failure == null) {
+            failure = e;
+        }
+        notifyAll();
+    }
+
+    private synchronized Exception failure() {
+        return failure;
+    }
+
+    synchronized void finishWalk() {
+        walking = false;
+        notifyAll();
+    }
+
+    // Makes the workers give up at their next task, e.g. when the walk was interrupted
+    synchronized void stop() {
+        walking = false;
+        if (failure == null) {
+            failure = new IllegalStateException("License scan was stopped");
+        }
+        notifyAll();
+    }
+
+    private void work(int worker) throws IOException, InterruptedException {
+        if (shards == null) {
+            work(null, null);
+        } else if (options.isSortedShards()) {
+            work(null, new SortedRuns(shards, worker, options.getFormatter()));
+        } else {
+            File shard = shards.getFiles().get(worker);
+            try (BufferedWriter bw = new BufferedWriter(new FileWriter(shard), options.getBufferSize())) {
+                OutputSink sink = OutputSink.of(bw, options);
+                if (options.isKeepShards()) {
+                    sink.start();
+                }
+                work(new Output(sink), null);
+                if (options.isKeepShards()) {
+                    sink.finish(); // A kept shard is a whole output
+                } else {
+                    sink.flush();
+                }
+            }
+        }
+    }
+
+    // Lines go to the sorted runs or the shard when there is one, to the output of their root otherwise
+    private void work(Output shard, SortedRuns runs) throws IOException, InterruptedException {
+        try (LineChannel channel = new LineChannel(this, ordered, runs)) {
+            Task task;
+            while ((task = take()) != null) {
+                Job job = task.job();
+                channel.accept(shard == null ? job.output() : shard, task.seq(),
+                        job.session().process(task.file(), task.topLevel()));
+            }
+        }
+    }
+
+    void writeChunk(Output output, CharSequence chunk, int lines) throws IOException {
+        output.sink.write(chunk, lines);
+    }
+
+    // Parks out of order lines until every line before them has been written
+    synchronized void writeInOrder(Output output, long seq, String line) throws IOException {
+        output.pending.put(seq, line == null ? SKIPPED : line);
+        String next;
+        while ((next = output.pending.remove(output.nextToWrite)) != null) {
+            if (!next.isEmpty()) {
+                output.sink.write(next, 1);
+            }
+            output.nextToWrite++;
+        }
+        notifyAll();
+    }
+
+    // Makes sure the walker can't wait forever for workers which are all gone, whatever stopped them
+    synchronized void workerStopped() {
+        liveWorkers--;
+        if (liveWorkers == 0 && failure == null && (walking || !queue.isEmpty())) {
+            failure = new IllegalStateException("All license scanner workers have stopped");
+        }
+        notifyAll();
+    }
+
+    private record Task(File file, boolean topLevel, long seq, Job job) {
+    }
+
+    // One root to walk, with the session its files are parsed in and the output they go to, if not sharded
+    record Job(File root, ScanSession session, Output output) {
+    }
+
+    // An output file shared by one or more roots, numbered across all of them when the output is ordered
+    static final class Output {
+        private final OutputSink sink;
+        private final Map<Long, String> pending = new HashMap<>();
+        private long nextSeq;
+        private long nextToWrite;
+
+        Output(OutputSink sink) {
+            this.sink = sink;
+        }
+
+        LicenseFormatter getFormatter() {
+            return sink.getFormatter();
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try (WorkerLease lease = new WorkerLease(ParallelScanner.this, index)) {
+                work(lease.getWorker());
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                fail(e);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<Thread> startWorkers() {
+        synchronized (this) {
+            liveWorkers = workers;
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(new Worker(i), "license-scanner-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        return threads;
+    }
+}
+
+// Lines produced by one worker, either batched for the shared sink, passed to the reorder window
+// or, for a sorted shard, added to the worker's sorted runs
+final class LineChannel implements AutoCloseable {
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final ParallelScanner scanner;
+    private final boolean ordered;
+    // null unless the lines are sorted before they are written
+    private final SortedRuns runs;
+    private final StringBuilder buffer = new StringBuilder();
+    // Output the buffered lines belong to
+    private ParallelScanner.Output output;
+    private int lines;
+
+    LineChannel(ParallelScanner scanner, boolean ordered, SortedRuns runs) {
+        this.scanner = scanner;
+        this.ordered = ordered;
+        this.runs = runs;
+    }
+
+    void accept(ParallelScanner.Output output, long seq, License license) throws IOException {
+        if (ordered) {
+            scanner.writeInOrder(output, seq, license == null ? null : line(output, license));
+        } else if (runs != null) {
+            if (license != null) {
+                runs.add(license);
+            }
+        } else if (license != null) {
+            if (output != this.output && buffer.length() > 0) {
+                flush();
+            }
+            this.output = output;
+            output.getFormatter().format(license, buffer);
+            lines++;
+            if (buffer.length() >= FLUSH_THRESHOLD) {
+                flush();
+            }
+        }
+    }
+
+    // Every output has its own formatter, bound to the scan it belongs to
+    private String line(ParallelScanner.Output output, License license) {
+        output.getFormatter().format(license, buffer);
+        String line = buffer.toString();
+        buffer.setLength(0);
+        return line;
+    }
+
+    private void flush() throws IOException {
+        scanner.writeChunk(output, buffer, lines);
+        buffer.setLength(0);
+        lines = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (runs != null) {
+            runs.spill();
+        }
+        if (buffer.length() > 0) {
+            flush();
+        }
+    }
+}
+
+// A worker's place in the pool, given back however the worker stops
+final class WorkerLease implements AutoCloseable {
+    private final ParallelScanner scanner;
+    private final int worker;
+
+    WorkerLease(ParallelScanner scanner, int worker) {
+        this.scanner = scanner;
+        this.worker = worker;
+    }
+
+    int getWorker() {
+        return worker;
+    }
+
+    @Override
+    public void close() {
+        scanner.workerStopped();
+    }
+}
+
+// Lets the workers drain the queue once the walk is over and waits for all of them
+final class WorkerPool implements AutoCloseable {
+    private final ParallelScanner scanner;
+    private final List<Thread> threads;
+    private boolean joined;
+
+    WorkerPool(ParallelScanner scanner, List<Thread> threads) {
+        this.scanner = scanner;
+        this.threads = threads;
+    }
+
+    void join() throws InterruptedException {
+        scanner.finishWalk();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        joined = true;
+    }
+
+    // Without a join the walk has thrown, e.g. was interrupted: the daemon workers are stopped, not waited for,
+    // so the interrupt is left for the caller and close never throws
+    @Override
+    public void close() {
+        if (!joined) {
+            scanner.stop();
+        }
+    }
+}
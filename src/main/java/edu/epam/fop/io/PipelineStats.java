@@ -0,0 +1,16 @@
+package edu.epam.fop.io;
+
+/**
+ * How the stages of a pipelined scan kept up with each other, see {@link ScanOptions#pipeline(int)}.
+ *
+ * <p>The walker stalls when every parser queue is full, i.e. parsing is the bottleneck; parsers stall when
+ * their queue to the writer is full, i.e. writing is; the writer idles when no parser has a line ready, i.e.
+ * walking or parsing is. Backlogs are the fullest a queue was seen right after an item was added. Stall and
+ * idle times are only measured with a {@link ScanListener}, otherwise they are 0 and only counted.
+ */
+public record PipelineStats(int queueDepth, int parsers,
+                            int maxParseBacklog, int maxWriteBacklog,
+                            long walkerStalls, long walkerStallNanos,
+                            long parserStalls, long parserStallNanos,
+                            long writerIdles, long writerIdleNanos) {
+}
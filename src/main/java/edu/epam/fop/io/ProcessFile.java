@@ -0,0 +1,100 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * Turns a single file into a {@link License} and its output line. Instances keep nothing but their header limits,
+ * so one instance can be shared by any number of threads.
+ */
+public final class ProcessFile {
+    static final ProcessFile DEFAULT = new ProcessFile(HeaderParser.DEFAULT);
+
+    private final HeaderParser parser;
+
+    public ProcessFile() {
+        this(HeaderParser.DEFAULT);
+    }
+
+    // Limits how much of a file may be read while looking for the end of its header
+    public ProcessFile(int maxHeaderChars, int maxHeaderLines) {
+        this(new HeaderParser(maxHeaderChars, maxHeaderLines));
+    }
+
+    // Also bounds how many distinct headers are remembered for reuse, 0 turns the reuse off
+    public ProcessFile(int maxHeaderChars, int maxHeaderLines, int dedupEntries) {
+        this(new HeaderParser(maxHeaderChars, maxHeaderLines, dedupEntries));
+    }
+
+    ProcessFile(HeaderParser parser) {
+        this.parser = parser;
+    }
+
+    private static License parseFile(LicenseHeader header, File in) {
+        return new License(in, header.getLicenseName(), header.getIssuedBy(), header.getIssuedOn(),
+                header.getExpiresOn());
+    }
+
+    // Why the header can't be used, null when it describes a valid license
+    private static Diagnostic diagnose(LicenseHeader header, File file) {
+        if (header.getError() != null) {
+            return new Diagnostic(file, header.getErrorType(), header.getErrorLine(), header.getError());
+        }
+        if (header.isArchive()) {
+            return new Diagnostic(file, Diagnostic.Type.NOT_A_LICENSE, 0, "Archive, entries are not scanned: " + file.getAbsolutePath());
+        }
+        if (!header.isStarted()) {
+            return new Diagnostic(file, Diagnostic.Type.NOT_A_LICENSE, 0, "Invalid license file: " + file.getAbsolutePath());
+        }
+        if (!header.isTerminated()) {
+            return new Diagnostic(file, Diagnostic.Type.INVALID_HEADER, header.getLine(),
+                    "Invalid license file: " + file.getAbsolutePath());
+        }
+        String missing = header.missingProperty();
+        if (missing != null) {
+            return new Diagnostic(file, Diagnostic.Type.MISSING_PROPERTY, header.getLine(), "Missing item: " + missing);
+        }
+        return null;
+    }
+
+    public String processFile(File file) {
+        return readLicense(file).format();
+    }
+
+    // Same as processFile(File), but returns null for anything that is not a valid license
+    public String processFileOrNull(File file) {
+        License license = readLicenseOrNull(file);
+        return license == null ? null : license.format();
+    }
+
+    public License readLicense(File file) {
+        return process(file).licenseOrThrow();
+    }
+
+    public License readLicenseOrNull(File file) {
+        return process(file).licenseOrNull();
+    }
+
+    ProcessResult process(File file) {
+        return process(file, null);
+    }
+
+    ProcessResult process(File file, ReadStats stats) {
+        if (file == null)
+            throw new IllegalArgumentException("File cant be null!");
+        LicenseHeader header = parser.read(file, stats);
+        Diagnostic diagnostic = diagnose(header, file);
+        if (diagnostic != null) {
+            return ProcessResult.failed(diagnostic);
+        }
+        return ProcessResult.ok(parseFile(header, file));
+    }
+
+    int getMaxHeaderChars() {
+        return parser.getMaxHeaderChars();
+    }
+
+    // Null when headers are not reused
+    HeaderDedup getDedup() {
+        return parser.getDedup();
+    }
+}
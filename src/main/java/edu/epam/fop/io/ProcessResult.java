@@ -0,0 +1,31 @@
+package edu.epam.fop.io;
+
+/**
+ * What processing one file ended with: either a valid license,
+ * or the reason why the file was rejected.
+ */
+record ProcessResult(License license, Diagnostic diagnostic) {
+
+    static ProcessResult ok(License license) {
+        return new ProcessResult(license, null);
+    }
+
+    static ProcessResult failed(Diagnostic diagnostic) {
+        return new ProcessResult(null, diagnostic);
+    }
+
+    String error() {
+        return diagnostic == null ? null : diagnostic.message();
+    }
+
+    License licenseOrNull() {
+        return license;
+    }
+
+    License licenseOrThrow() {
+        if (license == null) {
+            throw new IllegalArgumentException(diagnostic.message());
+        }
+        return license;
+    }
+}
@@ -0,0 +1,13 @@
+package edu.epam.fop.io;
+
+/**
+ * What reading one header cost, filled in by the parser only when somebody listens.
+ */
+final class ReadStats {
+    // Answered by the cache, nothing was read
+    boolean cached;
+    // The file was opened
+    boolean read;
+    long chars;
+    long ioNanos;
+}
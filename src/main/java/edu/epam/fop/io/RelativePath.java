@@ -0,0 +1,33 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * Paths of scanned files relative to the scan root, with '/' as separator. The walker builds every path from
+ * the root's one, so this is a prefix cut rather than a file system call. Files outside the root, or any file
+ * without a root, keep the path they have.
+ */
+final class RelativePath {
+    private final String prefix;
+
+    RelativePath(File root) {
+        if (root == null) {
+            prefix = null;
+        } else if (root.isFile()) {
+            // A single file scan: the path is its name
+            String parent = root.getParent();
+            prefix = parent == null ? "" : parent + File.separator;
+        } else {
+            String path = root.getPath();
+            prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        }
+    }
+
+    String of(File file) {
+        String path = file.getPath();
+        if (prefix != null && path.startsWith(prefix)) {
+            path = path.substring(prefix.length());
+        }
+        return File.separatorChar == '/' ? path : path.replace(File.separatorChar, '/');
+    }
+}
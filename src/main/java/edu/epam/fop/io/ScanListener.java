@@ -0,0 +1,39 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * Callbacks from the hot paths of a scan, for metrics or progress reporting. Methods may be called from
+ * several threads at once and should return quickly. Without a listener no clock is read at all.
+ * Times are in nanoseconds.
+ */
+public interface ScanListener {
+
+    // A directory was listed, entries is the number of names in it
+    default void directoryListed(File dir, int entries, long nanos) {
+    }
+
+    /**
+     * A file went through the header parser. failure is null for a license and
+     * {@link Diagnostic.Type#NOT_A_LICENSE} for a regular file; ioNanos is the part of nanos spent
+     * opening and reading the file.
+     */
+    default void fileScanned(File file, Diagnostic.Type failure, long charsRead, long ioNanos, long nanos) {
+    }
+
+    // A file was answered from the incremental cache without being opened
+    default void cacheHit(File file, Diagnostic.Type failure) {
+    }
+
+    // A batch of output reached the file
+    default void outputWritten(int chars, long nanos) {
+    }
+
+    // A pipelined scan is over, called before scanFinished
+    default void pipelineFinished(PipelineStats stats) {
+    }
+
+    // The scan is over and everything was written, the output is complete and in place
+    default void scanFinished(ScanReport report, long nanos) {
+    }
+}
@@ -0,0 +1,258 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counters and latency histograms per scan stage: directory listing, header I/O, parsing and output.
+ * Pass an instance to {@link ScanOptions#listener(ScanListener)}; one instance may be shared by several
+ * scans, the numbers then add up. Safe to read while a scan is running.
+ */
+public final class ScanMetrics implements ScanListener, ScanMetricsMBean {
+    private static final long NANOS_PER_MICRO = 1_000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    // All the state below is guarded by this
+    private long directories;
+    private long entries;
+    private long files;
+    private long cacheHits;
+    private long licenses;
+    private long nonLicenses;
+    private final long[] failures = new long[Diagnostic.Type.values().length];
+    private long charsRead;
+    private long outputChars;
+    private long listNanos;
+    private long ioNanos;
+    private long parseNanos;
+    private long writeNanos;
+    private final LatencyHistogram listLatency = new LatencyHistogram();
+    private final LatencyHistogram fileLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private long walkerStallNanos;
+    private long parserStallNanos;
+    private long writerIdleNanos;
+    private long maxParseBacklog;
+    private long maxWriteBacklog;
+
+    @Override
+    public synchronized void directoryListed(File dir, int count, long nanos) {
+        directories++;
+        entries += count;
+        listNanos += nanos;
+        listLatency.record(nanos);
+    }
+
+    @Override
+    public synchronized void fileScanned(File file, Diagnostic.Type failure, long chars, long io, long nanos) {
+        files++;
+        count(failure);
+        charsRead += chars;
+        ioNanos += io;
+        parseNanos += nanos - io;
+        fileLatency.record(nanos);
+    }
+
+    @Override
+    public synchronized void cacheHit(File file, Diagnostic.Type failure) {
+        files++;
+        cacheHits++;
+        count(failure);
+    }
+
+    private void count(Diagnostic.Type failure) {
+        if (failure == null) {
+            licenses++;
+        } else if (failure == Diagnostic.Type.NOT_A_LICENSE) {
+            nonLicenses++;
+        } else {
+            failures[failure.ordinal()]++;
+        }
+    }
+
+    @Override
+    public synchronized void outputWritten(int chars, long nanos) {
+        outputChars += chars;
+        writeNanos += nanos;
+        writeLatency.record(nanos);
+    }
+
+    @Override
+    public synchronized void pipelineFinished(PipelineStats stats) {
+        walkerStallNanos += stats.walkerStallNanos();
+        parserStallNanos += stats.parserStallNanos();
+        writerIdleNanos += stats.writerIdleNanos();
+        maxParseBacklog = Math.max(maxParseBacklog, stats.maxParseBacklog());
+        maxWriteBacklog = Math.max(maxWriteBacklog, stats.maxWriteBacklog());
+    }
+
+    @Override
+    public synchronized long getDirectoriesListed() {
+        return directories;
+    }
+
+    @Override
+    public synchronized long getDirectoryEntries() {
+        return entries;
+    }
+
+    @Override
+    public synchronized long getFilesScanned() {
+        return files;
+    }
+
+    @Override
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    @Override
+    public synchronized long getLicenses() {
+        return licenses;
+    }
+
+    @Override
+    public synchronized long getNonLicenses() {
+        return nonLicenses;
+    }
+
+    @Override
+    public synchronized long getParseFailures() {
+        long total = 0;
+        for (long count : failures) {
+            total += count;
+        }
+        return total;
+    }
+
+    public synchronized Map<Diagnostic.Type, Long> getParseFailuresByType() {
+        Map<Diagnostic.Type, Long> byType = new EnumMap<>(Diagnostic.Type.class);
+        for (Diagnostic.Type type : Diagnostic.Type.values()) {
+            if (failures[type.ordinal()] > 0) {
+                byType.put(type, failures[type.ordinal()]);
+            }
+        }
+        return byType;
+    }
+
+    @Override
+    public String getParseFailuresByReason() {
+        String byType = getParseFailuresByType().toString();
+        return byType.substring(1, byType.length() - 1);
+    }
+
+    @Override
+    public synchronized long getCharsRead() {
+        return charsRead;
+    }
+
+    @Override
+    public synchronized long getOutputChars() {
+        return outputChars;
+    }
+
+    @Override
+    public synchronized long getListingMillis() {
+        return listNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getHeaderIoMillis() {
+        return ioNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getParsingMillis() {
+        return parseNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getOutputMillis() {
+        return writeNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getFileLatencyP50Micros() {
+        return fileLatency.percentile(0.5) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public synchronized long getFileLatencyP99Micros() {
+        return fileLatency.percentile(0.99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public synchronized long getFileLatencyMaxMicros() {
+        return fileLatency.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public synchronized long getListingLatencyP99Micros() {
+        return listLatency.percentile(0.99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public synchronized long getOutputLatencyP99Micros() {
+        return writeLatency.percentile(0.99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public synchronized long getWalkerStallMillis() {
+        return walkerStallNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getParserStallMillis() {
+        return parserStallNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getWriterIdleMillis() {
+        return writerIdleNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized long getMaxParseBacklog() {
+        return maxParseBacklog;
+    }
+
+    @Override
+    public synchronized long getMaxWriteBacklog() {
+        return maxWriteBacklog;
+    }
+
+    @Override
+    public synchronized void reset() {
+        directories = 0;
+        entries = 0;
+        files = 0;
+        cacheHits = 0;
+        licenses = 0;
+        nonLicenses = 0;
+        Arrays.fill(failures, 0);
+        charsRead = 0;
+        outputChars = 0;
+        listNanos = 0;
+        ioNanos = 0;
+        parseNanos = 0;
+        writeNanos = 0;
+        listLatency.reset();
+        fileLatency.reset();
+        writeLatency.reset();
+        walkerStallNanos = 0;
+        parserStallNanos = 0;
+        writerIdleNanos = 0;
+        maxParseBacklog = 0;
+        maxWriteBacklog = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ScanMetrics[directories=" + directories + ", files=" + files + ", licenses=" + licenses
+                + ", nonLicenses=" + nonLicenses + ", failures=" + getParseFailures() + ", cacheHits=" + cacheHits
+                + ", listing=" + getListingMillis() + "ms, headerIo=" + getHeaderIoMillis() + "ms, parsing="
+                + getParsingMillis() + "ms, output=" + getOutputMillis() + "ms]";
+    }
+}
@@ -0,0 +1,61 @@
+package edu.epam.fop.io;
+
+/**
+ * Management interface of {@link ScanMetrics}, shaped as a standard MBean so that it can be registered
+ * with {@code ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name)} and watched from
+ * JConsole or any JMX client. Times are totals in milliseconds unless stated otherwise.
+ */
+public interface ScanMetricsMBean {
+
+    long getDirectoriesListed();
+
+    long getDirectoryEntries();
+
+    long getFilesScanned();
+
+    long getCacheHits();
+
+    long getLicenses();
+
+    long getNonLicenses();
+
+    long getParseFailures();
+
+    // Failures per Diagnostic.Type, e.g. "MISSING_PROPERTY=2, INVALID_DATE=1"
+    String getParseFailuresByReason();
+
+    long getCharsRead();
+
+    long getOutputChars();
+
+    long getListingMillis();
+
+    long getHeaderIoMillis();
+
+    long getParsingMillis();
+
+    long getOutputMillis();
+
+    long getFileLatencyP50Micros();
+
+    long getFileLatencyP99Micros();
+
+    long getFileLatencyMaxMicros();
+
+    long getListingLatencyP99Micros();
+
+    long getOutputLatencyP99Micros();
+
+    // Pipelined scans only, see PipelineStats
+    long getWalkerStallMillis();
+
+    long getParserStallMillis();
+
+    long getWriterIdleMillis();
+
+    long getMaxParseBacklog();
+
+    long getMaxWriteBacklog();
+
+    void reset();
+}
@@ -0,0 +1,362 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tuning knobs for {@link LicenseReader#collectLicenses(File, File, ScanOptions)}.
+ * A fresh instance describes the classic single threaded scan.
+ */
+public final class ScanOptions {
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int DEFAULT_FLUSH_LINES = 1024;
+    static final int DEFAULT_FLUSH_CHARS = 1 << 16;
+    static final int DEFAULT_MAX_DIAGNOSTICS = 1000;
+    static final int DEFAULT_CHECKPOINT_FILES = 10_000;
+    static final long DEFAULT_CHECKPOINT_MILLIS = 30_000;
+
+    private int workers = 1;
+    private boolean ordered;
+    private ProcessFile processor = ProcessFile.DEFAULT;
+    private File cacheFile;
+    private boolean contentHash;
+    private LicenseFormatter formatter = LicenseFormatter.TEXT;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int flushLines = DEFAULT_FLUSH_LINES;
+    private int flushChars = DEFAULT_FLUSH_CHARS;
+    private boolean atomicOutput;
+    private boolean shardedOutput;
+    private boolean sortedShards;
+    private boolean keepShards;
+    private int pipelineDepth;
+    private File checkpointFile;
+    private int checkpointFiles = DEFAULT_CHECKPOINT_FILES;
+    private long checkpointMillis = DEFAULT_CHECKPOINT_MILLIS;
+    private int maxDepth = Integer.MAX_VALUE;
+    private final List<Glob> includes = new ArrayList<>();
+    private final List<Glob> excludes = new ArrayList<>();
+    private ErrorPolicy errorPolicy = ErrorPolicy.FAIL_FAST;
+    private int maxDiagnostics = DEFAULT_MAX_DIAGNOSTICS;
+    private ScanListener listener;
+    private LicenseIndex.Builder index;
+    private ExpiryReport expiryReport;
+
+    // Number of threads parsing files, 1 keeps everything on the calling thread
+    public ScanOptions workers(int workers) {
+        if (workers < 1)
+            throw new IllegalArgumentException("Workers count must be positive: " + workers);
+        this.workers = workers;
+        return this;
+    }
+
+    // Keeps output lines in traversal order when several workers are used
+    public ScanOptions ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    // Parser shared by all workers, e.g. one with custom header limits
+    public ScanOptions processor(ProcessFile processor) {
+        if (processor == null)
+            throw new IllegalArgumentException("Processor cant be null!");
+        this.processor = processor;
+        return this;
+    }
+
+    // Keeps an index of the scanned files there, unchanged files are not parsed again on the next run
+    public ScanOptions incremental(File cacheFile) {
+        this.cacheFile = cacheFile;
+        return this;
+    }
+
+    // Also compares a hash of the header region, for file systems with unreliable modification times
+    public ScanOptions contentHash(boolean contentHash) {
+        this.contentHash = contentHash;
+        return this;
+    }
+
+    // How each license is written to the output file: TEXT, JSON_LINES, CSV, SUMMARY or your own
+    public ScanOptions formatter(LicenseFormatter formatter) {
+        if (formatter == null)
+            throw new IllegalArgumentException("Formatter cant be null!");
+        this.formatter = formatter;
+        return this;
+    }
+
+    // Size of the output writer buffer, in chars
+    public ScanOptions bufferSize(int chars) {
+        if (chars < 1)
+            throw new IllegalArgumentException("Buffer size must be positive: " + chars);
+        this.bufferSize = chars;
+        return this;
+    }
+
+    // Output reaches the file in batches of at most that many lines or chars, whichever comes first
+    public ScanOptions flushEvery(int lines, int chars) {
+        if (lines < 1 || chars < 1)
+            throw new IllegalArgumentException("Flush thresholds must be positive: " + lines + ", " + chars);
+        this.flushLines = lines;
+        this.flushChars = chars;
+        return this;
+    }
+
+    // Writes to a temporary file and renames it over the output file once the scan has succeeded
+    public ScanOptions atomicOutput(boolean atomicOutput) {
+        this.atomicOutput = atomicOutput;
+        return this;
+    }
+
+    /**
+     * Every worker writes its own shard file next to the output, the shards are concatenated into the output
+     * at the end, or merged record by record when sorted, in {@link LicenseFormatter#sortKey} order: by line
+     * for the text format, which starts with the file name, by relative path for JSON Lines and CSV. A sorting
+     * worker keeps about 8 MB of records in memory and spills the rest to sorted run files. Takes the output
+     * lock off the workers, but can't keep the traversal order.
+     */
+    public ScanOptions shardedOutput(boolean sorted) {
+        this.shardedOutput = true;
+        this.sortedShards = sorted;
+        return this;
+    }
+
+    // Sharded output only: the shards stay in place of the merged output, which just lists their names. Each
+    // kept shard is a whole output of its own, e.g. with a CSV header, so an aggregating formatter cant be kept
+    public ScanOptions keepShards(boolean keepShards) {
+        this.keepShards = keepShards;
+        return this;
+    }
+
+    /**
+     * Runs a parallel scan as a walker, parser and writer pipeline connected by lock-free rings of this many
+     * files per parser, 0 turns it off. A deeper ring absorbs bursts, e.g. of a spinning disk, a shallower
+     * one keeps fewer files pending. Stalls of each stage are reported to the listener at the end.
+     */
+    public ScanOptions pipeline(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Pipeline depth cant be negative: " + depth);
+        this.pipelineDepth = depth;
+        return this;
+    }
+
+    // Same as checkpoint(file, 10_000, 30_000)
+    public ScanOptions checkpoint(File checkpointFile) {
+        return checkpoint(checkpointFile, DEFAULT_CHECKPOINT_FILES, DEFAULT_CHECKPOINT_MILLIS);
+    }
+
+    /**
+     * Makes the scan resumable: the position of the walk and the length of the output are saved to the
+     * checkpoint file after every so many files or milliseconds, whichever comes first. A scan which finds a
+     * checkpoint of the same root and output continues after it, cutting the output back to the saved length,
+     * so every line is written exactly once. The file is deleted when the scan completes. Checkpointed scans
+     * walk directories in name order on one thread and append to the output, so they can't be combined with
+     * workers, sharded or atomic output. State built up over the whole scan is not saved, so neither can a
+     * cache, an index, an expiry report or an aggregating formatter such as SUMMARY.
+     */
+    public ScanOptions checkpoint(File checkpointFile, int everyFiles, long everyMillis) {
+        if (checkpointFile == null)
+            throw new IllegalArgumentException("Checkpoint file cant be null!");
+        if (everyFiles < 1)
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + everyFiles);
+        if (everyMillis < 1)
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + everyMillis);
+        this.checkpointFile = checkpointFile;
+        this.checkpointFiles = everyFiles;
+        this.checkpointMillis = everyMillis;
+        return this;
+    }
+
+    // Levels of directories walked, 1 only reads the files directly in root
+    public ScanOptions maxDepth(int maxDepth) {
+        if (maxDepth < 1)
+            throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    // Only files matching one of the globs are read, e.g. include("*.lic", "licenses/**")
+    public ScanOptions include(String... globs) {
+        addGlobs(includes, globs);
+        return this;
+    }
+
+    // Files and directories matching one of the globs are skipped, directories without being listed,
+    // e.g. exclude(".git", "node_modules")
+    public ScanOptions exclude(String... globs) {
+        addGlobs(excludes, globs);
+        return this;
+    }
+
+    // Whether an invalid file stops the scan or is skipped and reported
+    public ScanOptions errorPolicy(ErrorPolicy errorPolicy) {
+        if (errorPolicy == null)
+            throw new IllegalArgumentException("Error policy cant be null!");
+        this.errorPolicy = errorPolicy;
+        return this;
+    }
+
+    // Problems kept in the scan report, the ones past that are only counted
+    public ScanOptions maxDiagnostics(int maxDiagnostics) {
+        if (maxDiagnostics < 0)
+            throw new IllegalArgumentException("Max diagnostics cant be negative: " + maxDiagnostics);
+        this.maxDiagnostics = maxDiagnostics;
+        return this;
+    }
+
+    // Gets called from the hot paths of the scan, e.g. a ScanMetrics; null turns instrumentation off
+    public ScanOptions listener(ScanListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    // Every license found is also added there, build the index once the scan is over
+    public ScanOptions index(LicenseIndex.Builder index) {
+        this.index = index;
+        return this;
+    }
+
+    // Every license found is also classified there, counts and top lists are ready once the scan is over
+    public ScanOptions expiryReport(ExpiryReport expiryReport) {
+        this.expiryReport = expiryReport;
+        return this;
+    }
+
+    // Independent copy, for callers which adjust options they were handed
+    ScanOptions copy() {
+        ScanOptions copy = new ScanOptions();
+        copy.workers = workers;
+        copy.ordered = ordered;
+        copy.processor = processor;
+        copy.cacheFile = cacheFile;
+        copy.contentHash = contentHash;
+        copy.formatter = formatter;
+        copy.bufferSize = bufferSize;
+        copy.flushLines = flushLines;
+        copy.flushChars = flushChars;
+        copy.atomicOutput = atomicOutput;
+        copy.shardedOutput = shardedOutput;
+        copy.sortedShards = sortedShards;
+        copy.keepShards = keepShards;
+        copy.pipelineDepth = pipelineDepth;
+        copy.checkpointFile = checkpointFile;
+        copy.checkpointFiles = checkpointFiles;
+        copy.checkpointMillis = checkpointMillis;
+        copy.maxDepth = maxDepth;
+        copy.includes.addAll(includes);
+        copy.excludes.addAll(excludes);
+        copy.errorPolicy = errorPolicy;
+        copy.maxDiagnostics = maxDiagnostics;
+        copy.listener = listener;
+        copy.index = index;
+        copy.expiryReport = expiryReport;
+        return copy;
+    }
+
+    private static void addGlobs(List<Glob> target, String[] globs) {
+        if (globs == null)
+            throw new IllegalArgumentException("Globs cant be null!");
+        for (String glob : globs) {
+            target.add(Glob.compile(glob));
+        }
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public ProcessFile getProcessor() {
+        return processor;
+    }
+
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
+    public boolean isContentHash() {
+        return contentHash;
+    }
+
+    public LicenseFormatter getFormatter() {
+        return formatter;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getFlushLines() {
+        return flushLines;
+    }
+
+    public int getFlushChars() {
+        return flushChars;
+    }
+
+    public boolean isAtomicOutput() {
+        return atomicOutput;
+    }
+
+    public boolean isShardedOutput() {
+        return shardedOutput;
+    }
+
+    public boolean isSortedShards() {
+        return sortedShards;
+    }
+
+    public boolean isKeepShards() {
+        return keepShards;
+    }
+
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public int getCheckpointFiles() {
+        return checkpointFiles;
+    }
+
+    public long getCheckpointMillis() {
+        return checkpointMillis;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public ErrorPolicy getErrorPolicy() {
+        return errorPolicy;
+    }
+
+    public int getMaxDiagnostics() {
+        return maxDiagnostics;
+    }
+
+    public ScanListener getListener() {
+        return listener;
+    }
+
+    public LicenseIndex.Builder getIndex() {
+        return index;
+    }
+
+    public ExpiryReport getExpiryReport() {
+        return expiryReport;
+    }
+
+    List<Glob> getIncludes() {
+        return includes;
+    }
+
+    List<Glob> getExcludes() {
+        return excludes;
+    }
+}
@@ -0,0 +1,434 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pipelined flavour of {@link ParallelScanner}: directory discovery on the calling thread, header parsing
+ * and formatting on {@link ScanOptions#workers(int)} parser threads, and writing on a single writer thread.
+ *
+ * <p>Every parser has its own bounded {@link SpscRing} from the walker and another one to the writer, so
+ * no stage ever takes a lock to hand work on; a full ring makes the producer back off, which bounds the
+ * number of pending files however fast the walker is. An ordered scan deals files out round robin and the
+ * writer collects lines in the same rotation, which keeps the traversal order without a reorder window.
+ * Waiting stages spin briefly, then yield, then sleep. Failures are handled as in the other scans.
+ */
+final class ScanPipeline {
+    private static final String SKIPPED = "";
+    private static final int SPINS = 100;
+    private static final int YIELDS = 200;
+
+    private final ScanOptions options;
+    private final ScanSession session;
+    private final OutputSink sink;
+    private final boolean ordered;
+    private final boolean timed;
+    private final List<Parser> parsers = new ArrayList<>();
+    private final Stall walkerStall = new Stall();
+    private final Stall writerIdle = new Stall();
+
+    private volatile boolean walkDone;
+    // Files handed to the parsers, final once walkDone is set
+    private volatile long submitted;
+    private volatile boolean failed;
+    // Guarded by this
+    private Exception failure;
+    // Whether failure is only the placeholder of a stage which ended early
+    private boolean stopped;
+
+    private ScanPipeline(ScanOptions options, ScanSession session, OutputSink sink) {
+        this.options = options;
+        this.session = session;
+        this.sink = sink;
+        this.ordered = options.isOrdered();
+        this.timed = session.isTimed();
+        for (int i = 0; i < options.getWorkers(); i++) {
+            parsers.add(new Parser(options.getPipelineDepth()));
+        }
+    }
+
+    static void collectLicenses(File root, OutputSink sink, ScanOptions options, ScanSession session)
+            throws IOException, InterruptedException {
+        new ScanPipeline(options, session, sink).run(root);
+    }
+
+    private void run(File root) throws IOException, InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < parsers.size(); i++) {
+            threads.add(new Thread(parsers.get(i), "license-parser-" + i));
+        }
+        threads.add(new Thread(this::write, "license-writer"));
+        try (StageThreads stages = StageThreads.start(this, threads)) {
+            walk(root);
+            stages.join();
+        }
+        ScanListener listener = options.getListener();
+        if (listener != null) {
+            listener.pipelineFinished(getStats());
+        }
+        Exception e = failure();
+        if (e instanceof RuntimeException re) {
+            throw re;
+        }
+        if (e instanceof IOException ioe) {
+            throw ioe;
+        }
+        if (e instanceof InterruptedException ie) {
+            throw ie;
+        }
+    }
+
+    private void walk(File root) {
+        long seq = 0;
+        int next = 0;
+        try (FileWalker walker = new FileWalker(root, options, session)) {
+            File file;
+            while (!failed && (file = walker.next()) != null) {
+                Task task = new Task(file, walker.isTopLevel());
+                if (ordered) {
+                    put(parsers.get((int) (seq % parsers.size())).tasks, task, walkerStall);
+                } else {
+                    next = putAny(task, next);
+                }
+                seq++;
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(e);
+            Thread.currentThread().interrupt();
+        }
+        finishWalk(seq);
+    }
+
+    private void finishWalk(long count) {
+        submitted = count;
+        walkDone = true;
+    }
+
+    // Called once the walk is over, however it ended; one which never finished takes the scan down
+    void walkEnded() {
+        if (!walkDone) {
+            fail(new IllegalStateException("License walker stopped"));
+            walkDone = true;
+        }
+    }
+
+    // Called whenever a stage thread ends, one which ends before its work is done takes the scan down
+    synchronized void stageEnded(String stage, boolean finished) {
+        if (!finished) {
+            if (failure == null) {
+                failure = new IllegalStateException("License " + stage + " stopped");
+                stopped = true;
+            }
+            failed = true;
+        }
+    }
+
+    // Ring of the first parser with room, starting after the one which got the previous file
+    private int putAny(Task task, int start) throws InterruptedException {
+        int n = parsers.size();
+        for (int i = 0; i < n; i++) {
+            int p = (start + i) % n;
+            if (offer(parsers.get(p).tasks, task, walkerStall)) {
+                return (p + 1) % n;
+            }
+        }
+        long began = timed ? System.nanoTime() : 0;
+        walkerStall.count++;
+        for (int round = 0; !failed; round++) {
+            int p = (start + round) % n;
+            if (offer(parsers.get(p).tasks, task, walkerStall)) {
+                walkerStall.stalled(began, timed);
+                return (p + 1) % n;
+            }
+            if (p == (start + n - 1) % n) {
+                idle(round / n);
+            }
+        }
+        return start;
+    }
+
+    // Blocks while the ring is full, false if the scan failed meanwhile
+    private <T> boolean put(SpscRing<T> ring, T item, Stall stall) throws InterruptedException {
+        if (offer(ring, item, stall)) {
+            return true;
+        }
+        long began = timed ? System.nanoTime() : 0;
+        stall.count++;
+        for (int round = 0; !failed; round++) {
+            idle(round);
+            if (offer(ring, item, stall)) {
+                stall.stalled(began, timed);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> boolean offer(SpscRing<T> ring, T item, Stall stall) {
+        if (!ring.offer(item)) {
+            return false;
+        }
+        stall.backlog = Math.max(stall.backlog, ring.size());
+        return true;
+    }
+
+    // Spin, then yield, then sleep; round counts the unsuccessful attempts so far
+    private static void idle(int round) throws InterruptedException {
+        if (round < SPINS) {
+            Thread.onSpinWait();
+        } else if (round < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            Thread.sleep(1);
+        }
+    }
+
+    private void write() {
+        try (StageExit exit = new StageExit(this, "writer")) {
+            if (ordered) {
+                writeInOrder();
+            } else {
+                writeAsReady();
+            }
+            exit.finished();
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Collects lines in the rotation the walker dealt the files out in
+    private void writeInOrder() throws IOException, InterruptedException {
+        long seq = 0;
+        int round = 0;
+        long began = 0;
+        while (!failed) {
+            String line = parsers.get((int) (seq % parsers.size())).lines.poll();
+            if (line == null) {
+                if (walkDone && seq == submitted) {
+                    return;
+                }
+                began = idleRound(round++, began);
+                continue;
+            }
+            if (round > 0) {
+                writerIdle.stalled(began, timed);
+                round = 0;
+            }
+            if (!line.isEmpty()) {
+                sink.write(line, 1);
+            }
+            seq++;
+        }
+    }
+
+    private void writeAsReady() throws IOException, InterruptedException {
+        int round = 0;
+        long began = 0;
+        while (!failed) {
+            boolean done = walkDone && allParsersDone();
+            int written = 0;
+            for (Parser parser : parsers) {
+                String line;
+                while ((line = parser.lines.poll()) != null) {
+                    sink.write(line, 1);
+                    written++;
+                }
+            }
+            if (written > 0) {
+                if (round > 0) {
+                    writerIdle.stalled(began, timed);
+                    round = 0;
+                }
+            } else if (done) {
+                return; // parsers were done before the rings were drained, nothing can follow
+            } else {
+                began = idleRound(round++, began);
+            }
+        }
+    }
+
+    private long idleRound(int round, long began) throws InterruptedException {
+        if (round == 0) {
+            writerIdle.count++;
+            began = timed ? System.nanoTime() : 0;
+        }
+        idle(round);
+        return began;
+    }
+
+    private boolean allParsersDone() {
+        for (Parser parser : parsers) {
+            if (!parser.done) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The stage exit is closed before the exception is caught, the actual exception replaces its placeholder
+    synchronized void fail(Exception e) {
+        if (failure == null || stopped) {
+            failure = e;
+            stopped = false;
+        }
+        failed = true;
+    }
+
+    private synchronized Exception failure() {
+        return failure;
+    }
+
+    // Only complete once all stage threads have been joined
+    private PipelineStats getStats() {
+        int writeBacklog = 0;
+        long stalls = 0;
+        long stallNanos = 0;
+        for (Parser parser : parsers) {
+            writeBacklog = Math.max(writeBacklog, parser.stall.backlog);
+            stalls += parser.stall.count;
+            stallNanos += parser.stall.nanos;
+        }
+        return new PipelineStats(parsers.get(0).tasks.capacity(), parsers.size(), walkerStall.backlog, writeBacklog,
+                walkerStall.count, walkerStall.nanos, stalls, stallNanos, writerIdle.count, writerIdle.nanos);
+    }
+
+    private record Task(File file, boolean topLevel) {
+    }
+
+    // Waits of one thread, only ever touched by that thread until it has been joined
+    private static final class Stall {
+        private long count;
+        private long nanos;
+        private int backlog;
+
+        private void stalled(long began, boolean timed) {
+            if (timed) {
+                nanos += System.nanoTime() - began;
+            }
+        }
+    }
+
+    private final class Parser implements Runnable {
+        private final SpscRing<Task> tasks;
+        private final SpscRing<String> lines;
+        private final Stall stall = new Stall();
+        private final StringBuilder buffer = new StringBuilder();
+        private volatile boolean done;
+
+        private Parser(int depth) {
+            this.tasks = new SpscRing<>(depth);
+            this.lines = new SpscRing<>(depth);
+        }
+
+        @Override
+        public void run() {
+            try (StageExit exit = new StageExit(ScanPipeline.this, "parser")) {
+                parse();
+                done = true;
+                exit.finished();
+            } catch (RuntimeException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                fail(e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void parse() throws InterruptedException {
+            LicenseFormatter formatter = sink.getFormatter();
+            int round = 0;
+            while (!failed) {
+                Task task = tasks.poll();
+                if (task == null) {
+                    // The walker fills the ring before it says it is done, so look once more
+                    if (walkDone && (task = tasks.poll()) == null) {
+                        return;
+                    }
+                    if (task == null) {
+                        idle(round++);
+                        continue;
+                    }
+                }
+                round = 0;
+                License license = session.process(task.file(), task.topLevel());
+                if (license == null && !ordered) {
+                    continue;
+                }
+                String line = SKIPPED;
+                if (license != null) {
+                    formatter.format(license, buffer);
+                    line = buffer.toString();
+                    buffer.setLength(0);
+                }
+                if (!put(lines, line, stall)) {
+                    return;
+                }
+            }
+        }
+    }
+}
+
+// Ends the walk whatever happened to it and waits for the parser and writer threads
+final class StageThreads implements AutoCloseable {
+    private final ScanPipeline pipeline;
+    private final List<Thread> threads;
+    private boolean joined;
+
+    private StageThreads(ScanPipeline pipeline, List<Thread> threads) {
+        this.pipeline = pipeline;
+        this.threads = threads;
+    }
+
+    static StageThreads start(ScanPipeline pipeline, List<Thread> threads) {
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return new StageThreads(pipeline, threads);
+    }
+
+    void join() throws InterruptedException {
+        pipeline.walkEnded();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        joined = true;
+    }
+
+    // Without a join the walk has thrown or the wait was interrupted: the daemon stages are stopped, not
+    // waited for, so the interrupt is left for the caller and close never throws
+    @Override
+    public void close() {
+        if (!joined) {
+            pipeline.stageEnded("walker", false);
+        }
+    }
+}
+
+// A stage thread which ends early takes the whole scan down, so nobody waits for it forever
+final class StageExit implements AutoCloseable {
+    private final ScanPipeline pipeline;
+    private final String stage;
+    private boolean finished;
+
+    StageExit(ScanPipeline pipeline, String stage) {
+        this.pipeline = pipeline;
+        this.stage = stage;
+    }
+
+    void finished() {
+        finished = true;
+    }
+
+    @Override
+    public void close() {
+        pipeline.stageEnded(stage, finished);
+    }
+}
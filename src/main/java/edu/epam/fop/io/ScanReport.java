@@ -0,0 +1,52 @@
+package edu.epam.fop.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Problems found by one scan. Every problem is counted, but only the first few are kept,
+ * so a tree full of broken files can't fill the heap with diagnostics.
+ */
+public final class ScanReport {
+    private final int maxDiagnostics;
+
+    // Guarded by this
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private long errors;
+
+    ScanReport(int maxDiagnostics) {
+        this.maxDiagnostics = maxDiagnostics;
+    }
+
+    // Returns the number of problems found so far, this one included
+    synchronized long add(Diagnostic diagnostic) {
+        errors++;
+        if (diagnostics.size() < maxDiagnostics) {
+            diagnostics.add(diagnostic);
+        }
+        return errors;
+    }
+
+    public synchronized long getErrorCount() {
+        return errors;
+    }
+
+    public synchronized boolean hasErrors() {
+        return errors > 0;
+    }
+
+    // The first problems, in the order they were found
+    public synchronized List<Diagnostic> getDiagnostics() {
+        return List.copyOf(diagnostics);
+    }
+
+    // Whether more problems were found than kept
+    public synchronized boolean isTruncated() {
+        return errors > diagnostics.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ScanReport[errors=" + errors + ", kept=" + diagnostics.size() + "]";
+    }
+}
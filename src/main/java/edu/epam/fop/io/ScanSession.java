@@ -0,0 +1,123 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+
+/**
+ * Everything a single collectLicenses run shares between the walker and the workers.
+ */
+final class ScanSession {
+    private final ProcessFile processor;
+    private final LicenseCache cache;
+    // Sessions sharing a cache leave saving it to whoever handed it out
+    private final boolean ownsCache;
+    private final ErrorPolicy policy;
+    private final ScanReport report;
+    // null when nobody listens, then no clock is read either
+    private final ScanListener listener;
+    private final long started;
+    private final LicenseIndex.Builder index;
+    private final ExpiryReport expiryReport;
+
+    ScanSession(ScanOptions options) {
+        this(options, loadCache(options), true);
+    }
+
+    // One root of a batch, all of them answer from and add to the same cache
+    ScanSession(ScanOptions options, LicenseCache cache) {
+        this(options, cache, false);
+    }
+
+    private ScanSession(ScanOptions options, LicenseCache cache, boolean ownsCache) {
+        this.listener = options.getListener();
+        this.index = options.getIndex();
+        this.expiryReport = options.getExpiryReport();
+        this.started = listener == null ? 0 : System.nanoTime();
+        this.processor = options.getProcessor();
+        this.policy = options.getErrorPolicy();
+        this.report = new ScanReport(options.getMaxDiagnostics());
+        this.cache = cache;
+        this.ownsCache = ownsCache;
+    }
+
+    static LicenseCache loadCache(ScanOptions options) {
+        return options.getCacheFile() == null ? null : LicenseCache.load(options.getCacheFile(),
+                options.isContentHash(), options.getProcessor().getMaxHeaderChars());
+    }
+
+    // License in the file, or null when the error policy lets the scan skip it
+    License process(File file, boolean topLevel) {
+        ProcessResult result = listener == null ? read(file, null) : timedRead(file);
+        if (result.license() != null) {
+            if (index != null) {
+                index.add(result.license());
+            }
+            if (expiryReport != null) {
+                expiryReport.add(result.license());
+            }
+            return result.license();
+        }
+        Diagnostic diagnostic = result.diagnostic();
+        if (policy.isFailFast() && !topLevel) {
+            throw new IllegalArgumentException(diagnostic.message());
+        }
+        if (diagnostic.type() != Diagnostic.Type.NOT_A_LICENSE) {
+            record(diagnostic);
+        }
+        return null;
+    }
+
+    private ProcessResult read(File file, ReadStats stats) {
+        return cache == null ? processor.process(file, stats) : cache.process(processor, file, stats);
+    }
+
+    private ProcessResult timedRead(File file) {
+        ReadStats stats = new ReadStats();
+        long start = System.nanoTime();
+        ProcessResult result = read(file, stats);
+        long nanos = System.nanoTime() - start;
+        Diagnostic.Type failure = result.diagnostic() == null ? null : result.diagnostic().type();
+        if (stats.cached) {
+            listener.cacheHit(file, failure);
+        } else {
+            listener.fileScanned(file, failure, stats.chars, stats.ioNanos, nanos);
+        }
+        return result;
+    }
+
+    boolean isTimed() {
+        return listener != null;
+    }
+
+    void directoryListed(File dir, int entries, long nanos) {
+        listener.directoryListed(dir, entries, nanos);
+    }
+
+    // A directory which can't be walked, it is skipped unless the policy stops the scan
+    void directoryFailed(File dir, String message) {
+        if (policy.isFailFast()) {
+            throw new IllegalArgumentException(message);
+        }
+        record(new Diagnostic(dir, Diagnostic.Type.UNREADABLE_DIRECTORY, 0, message));
+    }
+
+    private void record(Diagnostic diagnostic) {
+        long errors = report.add(diagnostic);
+        if (!policy.isFailFast() && errors > policy.getMaxErrors()) {
+            throw new IllegalArgumentException("Too many invalid files (" + errors + "), last one: " + diagnostic);
+        }
+    }
+
+    ScanReport getReport() {
+        return report;
+    }
+
+    // Called once the whole tree has been scanned successfully
+    void finish() {
+        if (cache != null && ownsCache) {
+            cache.save();
+        }
+        if (listener != null) {
+            listener.scanFinished(report, System.nanoTime() - started);
+        }
+    }
+}
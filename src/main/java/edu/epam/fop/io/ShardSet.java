@@ -0,0 +1,75 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+// Shard files of one scan and the sorted runs spilled for them; shards are removed on close unless they are
+// kept and the scan completed, runs always are
+final class ShardSet implements AutoCloseable {
+    private final List<File> files;
+    private final boolean keep;
+    // Runs of every shard in the order they were spilled, guarded by this
+    private final List<List<File>> runs = new ArrayList<>();
+    private boolean complete;
+
+    private ShardSet(List<File> files, boolean keep) {
+        this.files = files;
+        this.keep = keep;
+        for (int i = 0; i < files.size(); i++) {
+            runs.add(new ArrayList<>());
+        }
+    }
+
+    static ShardSet of(File outputFile, int count, boolean keep) {
+        List<File> files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            files.add(new File(outputFile.getPath() + String.format(".part-%03d", i)));
+        }
+        return new ShardSet(files, keep);
+    }
+
+    List<File> getFiles() {
+        return files;
+    }
+
+    // A new run file of the shard, removed with the others on close
+    synchronized File newRun(int shard) {
+        List<File> shardRuns = runs.get(shard);
+        File run = new File(files.get(shard).getPath() + ".run-" + shardRuns.size());
+        shardRuns.add(run);
+        return run;
+    }
+
+    synchronized List<File> getRuns(int shard) {
+        return new ArrayList<>(runs.get(shard));
+    }
+
+    // Runs of all the shards, shard by shard
+    synchronized List<File> getRuns() {
+        List<File> all = new ArrayList<>();
+        for (List<File> shardRuns : runs) {
+            all.addAll(shardRuns);
+        }
+        return all;
+    }
+
+    void complete() {
+        complete = true;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (List<File> shardRuns : runs) {
+            for (File run : shardRuns) {
+                run.delete();
+            }
+        }
+        if (keep && complete) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sharded flavour of the parallel scan: every worker writes to its own shard file, so no worker ever waits
+ * for the output lock, and the shards are put together once the scan is over. Unsorted shards are simply
+ * concatenated. Sorted ones are written as {@link SortedRuns} and go through a k-way merge of whole records
+ * which reads each run once; a kept sorted shard is the merge of its own runs. Kept shards are not merged
+ * into the output at all, it only lists their names for consumers which read them in parallel, and each of
+ * them gets the formatter's start and finish, e.g. its own CSV header.
+ */
+final class ShardedOutput {
+    private static final int COPY_BUFFER = 8192;
+
+    private ShardedOutput() {
+    }
+
+    static void collectLicenses(File root, File outputFile, OutputSink sink, ScanOptions options,
+                                ScanSession session) throws IOException, InterruptedException {
+        try (ShardSet shards = ShardSet.of(outputFile, options.getWorkers(), options.isKeepShards())) {
+            ParallelScanner.collectSharded(root, shards, options, session);
+            if (options.isKeepShards()) {
+                for (int i = 0; i < shards.getFiles().size(); i++) {
+                    File shard = shards.getFiles().get(i);
+                    if (options.isSortedShards()) {
+                        mergeInto(shard, shards.getRuns(i), options);
+                    }
+                    sink.write(shard.getName() + System.lineSeparator(), 1);
+                }
+            } else if (options.isSortedShards()) {
+                merge(shards.getRuns(), 0, new PriorityQueue<>(), sink);
+            } else {
+                for (File shard : shards.getFiles()) {
+                    append(shard, sink);
+                }
+            }
+            shards.complete();
+        }
+    }
+
+    private static void append(File shard, OutputSink sink) throws IOException {
+        char[] buf = new char[COPY_BUFFER];
+        try (BufferedReader br = new BufferedReader(new FileReader(shard), COPY_BUFFER)) {
+            int n;
+            while ((n = br.read(buf, 0, buf.length)) > 0) {
+                sink.write(new String(buf, 0, n), 0);
+            }
+        }
+    }
+
+    private static void mergeInto(File shard, List<File> runs, ScanOptions options) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(shard), options.getBufferSize())) {
+            OutputSink sink = OutputSink.of(bw, options);
+            sink.start();
+            merge(runs, 0, new PriorityQueue<>(), sink);
+            sink.finish();
+        }
+    }
+
+    // Opens the runs one level of recursion each, so every reader is a try resource, then merges them
+    private static void merge(List<File> runs, int i, PriorityQueue<Head> heads, OutputSink sink)
+            throws IOException {
+        if (i == runs.size()) {
+            merge(heads, sink);
+            return;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(runs.get(i)))) {
+            Head head = Head.of(br, i);
+            if (head.advance()) {
+                heads.add(head);
+            }
+            merge(runs, i + 1, heads, sink);
+        }
+    }
+
+    private static void merge(PriorityQueue<Head> heads, OutputSink sink) throws IOException {
+        Head head;
+        while ((head = heads.poll()) != null) {
+            sink.write(head.record.text(), 1);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+    }
+
+    // Current record of one run; smallest record first, equal records in run order
+    private static final class Head implements Comparable<Head> {
+        private final int run;
+        private BufferedReader reader;
+        private SortedRuns.Record record;
+
+        private Head(int run) {
+            this.run = run;
+        }
+
+        static Head of(BufferedReader reader, int run) {
+            Head head = new Head(run);
+            head.reader = reader;
+            return head;
+        }
+
+        // Moves to the next record, false at the end of the run
+        boolean advance() throws IOException {
+            record = SortedRuns.read(reader);
+            return record != null;
+        }
+
+        @Override
+        public int compareTo(Head other) {
+            int c = record.compareTo(other.record);
+            return c != 0 ? c : Integer.compare(run, other.run);
+        }
+    }
+}
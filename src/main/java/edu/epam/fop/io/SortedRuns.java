@@ -0,0 +1,85 @@
+package edu.epam.fop.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records of one worker of a sorted sharded scan. They are kept in memory up to {@link #RUN_CHARS} characters,
+ * then sorted by {@link LicenseFormatter#sortKey} and spilled to a run file of the worker's shard, so a worker
+ * holds a bounded amount of output however large the tree is. A run has a line per record with its key and
+ * its text escaped like the license cache, so a record keeps its own line end and any line break inside it.
+ */
+final class SortedRuns {
+    // About 8 MB of records per worker
+    static final int RUN_CHARS = 1 << 22;
+
+    private final ShardSet shards;
+    private final int shard;
+    private final LicenseFormatter formatter;
+    private final List<Record> records = new ArrayList<>();
+    private final StringBuilder buffer = new StringBuilder();
+    private long chars;
+
+    SortedRuns(ShardSet shards, int shard, LicenseFormatter formatter) {
+        this.shards = shards;
+        this.shard = shard;
+        this.formatter = formatter;
+    }
+
+    void add(License license) throws IOException {
+        formatter.format(license, buffer);
+        String text = buffer.toString();
+        buffer.setLength(0);
+        if (text.isEmpty()) {
+            return; // Nothing per license, e.g. a summary
+        }
+        Record record = new Record(formatter.sortKey(license, text), text);
+        records.add(record);
+        chars += record.key().length() + text.length();
+        if (chars >= RUN_CHARS) {
+            spill();
+        }
+    }
+
+    // Writes the records kept so far to a new run, in order
+    void spill() throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        records.sort(null);
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(shards.newRun(shard)))) {
+            for (Record record : records) {
+                bw.write(LicenseCache.escape(record.key()));
+                bw.write('\t');
+                bw.write(LicenseCache.escape(record.text()));
+                bw.newLine();
+            }
+        }
+        records.clear();
+        chars = 0;
+    }
+
+    // Next record of a run, null at its end
+    static Record read(BufferedReader run) throws IOException {
+        String line = run.readLine();
+        if (line == null) {
+            return null;
+        }
+        int tab = line.indexOf('\t');
+        return new Record(LicenseCache.unescape(line.substring(0, tab)),
+                LicenseCache.unescape(line.substring(tab + 1)));
+    }
+
+    // Ordered by key, then by text
+    record Record(String key, String text) implements Comparable<Record> {
+        @Override
+        public int compareTo(Record other) {
+            int c = key.compareTo(other.key);
+            return c != 0 ? c : text.compareTo(other.text);
+        }
+    }
+}
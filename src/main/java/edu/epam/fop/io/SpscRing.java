@@ -0,0 +1,72 @@
+package edu.epam.fop.io;
+
+/**
+ * Bounded single producer, single consumer ring buffer. Neither side ever takes a lock: the producer only
+ * writes {@code tail}, the consumer only writes {@code head}, and the volatile write of each index publishes
+ * the slot it covers. Each side caches the other one's index and only reads the volatile field again when
+ * the cached value says the ring is full or empty, so an uncontended offer or poll touches no shared state.
+ */
+final class SpscRing<T> {
+    private final Object[] items;
+    private final int mask;
+
+    // Next slot to poll, written by the consumer only
+    private volatile long head;
+    // Next slot to fill, written by the producer only
+    private volatile long tail;
+    // Producer's view of head, consumer's view of tail
+    private long knownHead;
+    private long knownTail;
+
+    // Capacity is rounded up to a power of two
+    SpscRing(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.items = new Object[size];
+        this.mask = size - 1;
+    }
+
+    // Producer side, false when the ring is full
+    boolean offer(T item) {
+        long t = tail;
+        if (t - knownHead >= items.length) {
+            knownHead = head;
+            if (t - knownHead >= items.length) {
+                return false;
+            }
+        }
+        items[(int) t & mask] = item;
+        tail = t + 1;
+        return true;
+    }
+
+    // Consumer side, null when the ring is empty
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long h = head;
+        if (h >= knownTail) {
+            knownTail = tail;
+            if (h >= knownTail) {
+                return null;
+            }
+        }
+        int slot = (int) h & mask;
+        T item = (T) items[slot];
+        items[slot] = null;
+        head = h + 1;
+        return item;
+    }
+
+    // Items in the ring, exact only on the producer or consumer thread
+    int size() {
+        return (int) (tail - head);
+    }
+
+    int capacity() {
+        return items.length;
+    }
+}
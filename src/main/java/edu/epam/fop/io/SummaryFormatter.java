@@ -0,0 +1,84 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SPDX-style tag-value summary: nothing per license, one block per license name and issuer when the scan
+ * finishes, sorted by both. Memory grows with the number of distinct pairs, not with the number of files.
+ */
+final class SummaryFormatter implements LicenseFormatter {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    // Guarded by this
+    private final Map<String, Map<String, Group>> groups = new TreeMap<>();
+    private long files;
+
+    @Override
+    public LicenseFormatter forScan(File root) {
+        return new SummaryFormatter();
+    }
+
+    @Override
+    public boolean isAggregating() {
+        return true;
+    }
+
+    @Override
+    public synchronized void format(License license, StringBuilder out) {
+        files++;
+        groups.computeIfAbsent(license.getName(), k -> new TreeMap<>())
+                .computeIfAbsent(license.getIssuedBy(), k -> new Group())
+                .add(license);
+    }
+
+    @Override
+    public synchronized void finish(StringBuilder out) {
+        out.append("# License summary: ").append(files).append(" files").append(SEPARATOR);
+        for (Map.Entry<String, Map<String, Group>> byName : groups.entrySet()) {
+            for (Map.Entry<String, Group> byIssuer : byName.getValue().entrySet()) {
+                Group group = byIssuer.getValue();
+                out.append(SEPARATOR);
+                tag("LicenseName", byName.getKey(), out);
+                tag("LicenseIssuer", byIssuer.getKey(), out);
+                tag("FileCount", String.valueOf(group.count), out);
+                tag("UnlimitedCount", String.valueOf(group.unlimited), out);
+                tag("FirstIssuedOn", group.firstIssuedOn, out);
+                if (group.firstExpiresOn != null) {
+                    tag("FirstExpiresOn", group.firstExpiresOn, out);
+                }
+            }
+        }
+    }
+
+    // Values are single line in tag-value files
+    private static void tag(String tag, String value, StringBuilder out) {
+        out.append(tag).append(": ");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            out.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        out.append(SEPARATOR);
+    }
+
+    private static final class Group {
+        private long count;
+        private long unlimited;
+        private String firstIssuedOn;
+        private String firstExpiresOn;
+
+        // ISO dates sort as strings
+        void add(License license) {
+            count++;
+            if (firstIssuedOn == null || license.getIssuedOn().compareTo(firstIssuedOn) < 0) {
+                firstIssuedOn = license.getIssuedOn();
+            }
+            if (license.isUnlimited()) {
+                unlimited++;
+            } else if (firstExpiresOn == null || license.getExpiresOn().compareTo(firstExpiresOn) < 0) {
+                firstExpiresOn = license.getExpiresOn();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package edu.epam.fop.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointTest {
+
+  private static final String BROKEN = "---\nLicense: MIT\nIssued on: 2020-01-01\n---\n";
+
+  @TempDir
+  File dir;
+
+  @Test
+  @DisplayName("An interrupted scan resumes after its checkpoint and writes every line once")
+  void resumesAfterCheckpoint() throws IOException {
+    var root = tree();
+    var broken = new File(root, "dir-05/lib-1");
+    Files.writeString(broken.toPath(), BROKEN);
+    var output = new File(dir, "output");
+    var checkpoint = new File(dir, "checkpoint");
+
+    var options = new ScanOptions().checkpoint(checkpoint, 4, 60_000);
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output, options));
+    var saved = Checkpoint.read(checkpoint);
+    assertNotNull(saved);
+    // Lines past the checkpoint, e.g. flushed right before a crash, are cut off again
+    Files.writeString(output.toPath(), "License for junk" + System.lineSeparator(), StandardOpenOption.APPEND);
+
+    Files.writeString(broken.toPath(), valid("dir-05", 1));
+    var scanned = new long[1];
+    LicenseReader.collectLicenses(root, output, options.copy().listener(new ScanListener() {
+      @Override
+      public void fileScanned(File file, Diagnostic.Type failure, long charsRead, long ioNanos, long nanos) {
+        scanned[0]++;
+      }
+    }));
+
+    var expected = new File(dir, "expected");
+    LicenseReader.collectLicenses(root, expected);
+    assertEquals(30 - saved.getFiles(), scanned[0]);
+    assertEquals(sorted(expected), sorted(output));
+    assertFalse(checkpoint.exists());
+  }
+
+  @Test
+  @DisplayName("A checkpoint of another output starts the scan over")
+  void otherOutputStartsOver() throws IOException {
+    var root = tree();
+    var checkpoint = new File(dir, "checkpoint");
+    Files.writeString(new File(root, "dir-03/lib-0").toPath(), BROKEN);
+    var options = new ScanOptions().checkpoint(checkpoint, 1, 60_000);
+    assertThrows(IllegalArgumentException.class,
+        () -> LicenseReader.collectLicenses(root, new File(dir, "output"), options));
+    assertTrue(checkpoint.exists());
+
+    Files.writeString(new File(root, "dir-03/lib-0").toPath(), valid("dir-03", 0));
+    var other = new File(dir, "other");
+    LicenseReader.collectLicenses(root, other, options);
+    assertEquals(30, Files.readAllLines(other.toPath()).size());
+    assertFalse(checkpoint.exists());
+  }
+
+  @Test
+  @DisplayName("Checkpoints need a sequential scan which appends to the output")
+  void sequentialOnly() throws IOException {
+    var root = tree();
+    var output = new File(dir, "output");
+    var checkpoint = new File(dir, "checkpoint");
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().checkpoint(checkpoint).workers(4)));
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().checkpoint(checkpoint).atomicOutput(true)));
+    assertThrows(IllegalArgumentException.class, () -> new ScanOptions().checkpoint(checkpoint, 0, 1));
+  }
+
+  @Test
+  @DisplayName("State built up over the whole scan can't be combined with checkpoints")
+  void scanStateIsRejected() throws IOException {
+    var root = tree();
+    var output = new File(dir, "output");
+    var checkpoint = new File(dir, "checkpoint");
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().checkpoint(checkpoint).formatter(LicenseFormatter.SUMMARY)));
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().checkpoint(checkpoint).incremental(new File(dir, "cache"))));
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().checkpoint(checkpoint).index(new LicenseIndex.Builder())));
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().checkpoint(checkpoint)
+            .expiryReport(new ExpiryReport(LocalDate.of(2024, 1, 1), 30, 10))));
+    assertFalse(output.exists());
+  }
+
+  private File tree() throws IOException {
+    var root = new File(dir, "root");
+    for (int i = 0; i < 10; i++) {
+      var sub = new File(root, String.format("dir-%02d", i));
+      sub.mkdirs();
+      for (int j = 0; j < 3; j++) {
+        Files.writeString(new File(sub, "lib-" + j).toPath(), valid(sub.getName(), j));
+      }
+    }
+    return root;
+  }
+
+  // Every license is named after its file, so lines tell which file they came from
+  private static String valid(String dir, int j) {
+    return "---\nLicense: " + dir + "/" + j + "\nIssued by: Me\nIssued on: 2020-01-01\n---\n";
+  }
+
+  private static List<String> sorted(File file) throws IOException {
+    return Files.readAllLines(file.toPath()).stream().sorted().toList();
+  }
+}
@@ -0,0 +1,100 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Error policies and scan reports")
+class ErrorPolicyTest {
+
+  @TempDir
+  File tmp;
+
+  private File root;
+  private File output;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    root = new File(tmp, "input");
+    var nested = new File(root, "nested");
+    assertTrue(nested.mkdirs());
+    Files.copy(new File(getDirectory("case_01"), "input/library_01").toPath(), new File(root, "library_01").toPath());
+    var invalid = getDirectory("invalid_licenses");
+    Files.copy(new File(invalid, "missing_issued_by").toPath(), new File(nested, "missing_issued_by").toPath());
+    Files.copy(new File(invalid, "incomplete_headers").toPath(), new File(nested, "incomplete_headers").toPath());
+    Files.writeString(new File(nested, "bad_date").toPath(), "---\nLicense: MIT\nIssued on: 01.01.2020\n---\n");
+    Files.writeString(new File(nested, "readme").toPath(), "Just a regular file\n");
+    output = new File(tmp, "output");
+  }
+
+  @Test
+  @DisplayName("Fail fast keeps the classic behaviour")
+  void failFast() {
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().errorPolicy(ErrorPolicy.FAIL_FAST)));
+  }
+
+  @ParameterizedTest(name = "With {0} workers")
+  @ValueSource(ints = {1, 3})
+  @DisplayName("Collecting skips invalid files and reports where they went wrong")
+  void collect(int workers) throws IOException {
+    var report = LicenseReader.collectLicenses(root, output,
+        new ScanOptions().workers(workers).errorPolicy(ErrorPolicy.COLLECT));
+    assertEquals(1, Files.readAllLines(output.toPath()).size());
+    assertEquals(3, report.getErrorCount());
+    assertFalse(report.isTruncated());
+
+    var diagnostics = report.getDiagnostics().stream()
+        .sorted(Comparator.comparing(d -> d.file().getName()))
+        .collect(Collectors.toList());
+    assertEquals(List.of("bad_date", "incomplete_headers", "missing_issued_by"),
+        diagnostics.stream().map(d -> d.file().getName()).collect(Collectors.toList()));
+    assertEquals(List.of(Diagnostic.Type.INVALID_DATE, Diagnostic.Type.INVALID_HEADER,
+        Diagnostic.Type.MISSING_PROPERTY), diagnostics.stream().map(Diagnostic::type).collect(Collectors.toList()));
+    assertEquals(List.of(3, 4, 5), diagnostics.stream().map(Diagnostic::line).collect(Collectors.toList()));
+  }
+
+  @Test
+  @DisplayName("Threshold stops the scan, the report keeps only the first diagnostics")
+  void thresholdAndBoundedReport() {
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().errorPolicy(ErrorPolicy.threshold(2))));
+
+    var report = LicenseReader.collectLicenses(root, output,
+        new ScanOptions().errorPolicy(ErrorPolicy.threshold(3)).maxDiagnostics(1));
+    assertEquals(3, report.getErrorCount());
+    assertEquals(1, report.getDiagnostics().size());
+    assertTrue(report.isTruncated());
+  }
+
+  @Test
+  @DisplayName("Unusable directories are reported as well")
+  void unusableDirectory() {
+    var locked = new File(root, "nested");
+    assertTrue(locked.setExecutable(false));
+    try {
+      if (locked.canExecute()) {
+        return; // Permissions are not enforced for this user
+      }
+      var report = LicenseReader.collectLicenses(root, output, new ScanOptions().errorPolicy(ErrorPolicy.COLLECT));
+      assertEquals(Diagnostic.Type.UNREADABLE_DIRECTORY, report.getDiagnostics().get(0).type());
+    } finally {
+      locked.setExecutable(true);
+    }
+  }
+}
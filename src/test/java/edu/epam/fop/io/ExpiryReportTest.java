@@ -0,0 +1,84 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExpiryReportTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+
+  @TempDir
+  File dir;
+
+  @Test
+  @DisplayName("Licenses are classified against the reference date and window")
+  void classification() {
+    var report = new ExpiryReport(TODAY, 30, 2);
+    assertAll(
+        () -> assertEquals(ExpiryReport.Status.UNLIMITED, report.classify(license("a", null))),
+        () -> assertEquals(ExpiryReport.Status.EXPIRED, report.classify(license("a", "2024-05-31"))),
+        () -> assertEquals(ExpiryReport.Status.EXPIRING, report.classify(license("a", "2024-06-01"))),
+        () -> assertEquals(ExpiryReport.Status.EXPIRING, report.classify(license("a", "2024-07-01"))),
+        () -> assertEquals(ExpiryReport.Status.ACTIVE, report.classify(license("a", "2024-07-02")))
+    );
+  }
+
+  @Test
+  @DisplayName("Only the top K of each class are kept, in order")
+  void boundedTopLists() {
+    var report = new ExpiryReport(TODAY, 30, 2);
+    String[] dates = {"2024-06-20", "2024-06-03", "2024-06-10", "2024-06-03", "2023-01-01", "2024-05-01",
+        "2024-04-01", "2025-01-01", "2026-01-01", "2024-12-01"};
+    for (int i = 0; i < dates.length; i++) {
+      report.add(license("lib" + i, dates[i]));
+    }
+    report.add(license("unlimited", null));
+    assertAll(
+        () -> assertEquals(4, report.getCount(ExpiryReport.Status.EXPIRING)),
+        () -> assertEquals(3, report.getCount(ExpiryReport.Status.EXPIRED)),
+        () -> assertEquals(3, report.getCount(ExpiryReport.Status.ACTIVE)),
+        () -> assertEquals(1, report.getCount(ExpiryReport.Status.UNLIMITED)),
+        () -> assertEquals(List.of("lib1", "lib3"), names(report.getExpiringSoonest())),
+        () -> assertEquals(List.of("lib5", "lib6"), names(report.getRecentlyExpired())),
+        () -> assertEquals(List.of("lib9", "lib7"), names(report.getNextToExpire()))
+    );
+  }
+
+  @Test
+  @DisplayName("A streaming pass over a tree writes the report")
+  void reportOverTree() throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var reportFile = new File(dir, "report");
+    var report = LicenseReader.reportExpiry(root, reportFile, new ScanOptions(),
+        new ExpiryReport(TODAY, 365, 3));
+    long total = 0;
+    for (var count : report.getCounts().values()) {
+      total += count;
+    }
+    var output = new File(dir, "output");
+    LicenseReader.collectLicenses(root, output);
+    assertEquals(Files.readAllLines(output.toPath()).size(), total);
+    var lines = Files.readAllLines(reportFile.toPath());
+    assertTrue(lines.get(0).startsWith("Expiry report as of 2024-06-01"));
+    assertTrue(lines.contains("UNLIMITED: " + report.getCount(ExpiryReport.Status.UNLIMITED)));
+  }
+
+  private static License license(String name, String expiresOn) {
+    return new License(new File("libs", name), "GNU", "Me", "2020-01-01", expiresOn);
+  }
+
+  private static List<String> names(List<License> licenses) {
+    return licenses.stream().map(license -> license.getFile().getName()).toList();
+  }
+}
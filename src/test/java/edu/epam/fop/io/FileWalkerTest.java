@@ -0,0 +1,125 @@
+package edu.epam.fop.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FileWalkerTest {
+
+  @TempDir
+  File root;
+
+  @Test
+  @DisplayName("Deep trees are walked without recursion")
+  void deepTree() throws IOException {
+    var dir = root;
+    for (int i = 0; i < 500; i++) {
+      dir = new File(dir, "d");
+    }
+    assertTrue(dir.mkdirs());
+    touch(new File(dir, "deepest"));
+    touch(new File(root, "top"));
+    assertEquals(List.of("d/".repeat(500) + "deepest", "top"), walk(new ScanOptions()));
+  }
+
+  @Test
+  @DisplayName("Links back up the tree are not followed twice")
+  void symlinkLoop() throws IOException {
+    var nested = new File(root, "a/b");
+    assertTrue(nested.mkdirs());
+    touch(new File(nested, "file"));
+    Files.createSymbolicLink(new File(nested, "loop").toPath(), root.toPath());
+    assertEquals(List.of("a/b/file"), walk(new ScanOptions()));
+  }
+
+  @Test
+  @DisplayName("Max depth, include and exclude filters")
+  void filters() throws IOException {
+    for (var path : List.of("top.lic", "top.txt", "a/one.lic", "a/b/two.lic", "node_modules/x/three.lic",
+        ".git/objects/four.lic", "vendor/five.lic", "a/vendor/six.lic")) {
+      var file = new File(root, path);
+      file.getParentFile().mkdirs();
+      touch(file);
+    }
+    assertEquals(List.of("top.lic", "top.txt"), walk(new ScanOptions().maxDepth(1)));
+    assertEquals(List.of("a/b/two.lic", "a/one.lic", "a/vendor/six.lic", "top.lic", "vendor/five.lic"),
+        walk(new ScanOptions().include("*.lic").exclude(".git", "node_modules")));
+    assertEquals(List.of("a/b/two.lic", "a/one.lic", "a/vendor/six.lic", "top.lic", "top.txt"),
+        walk(new ScanOptions().exclude(".git", "node_modules", "/vendor")));
+    assertEquals(List.of("a/b/two.lic"), walk(new ScanOptions().include("a/**/two.*")));
+  }
+
+  @Test
+  @DisplayName("Excluded directories are not listed")
+  void excludedDirectoriesArePruned() throws IOException {
+    var locked = new File(root, "locked");
+    assertTrue(locked.mkdir());
+    touch(new File(root, "file"));
+    assertTrue(locked.setExecutable(false));
+    assumeFalse(locked.canExecute(), "Permissions are not enforced for this user");
+    try {
+      assertThrows(IllegalArgumentException.class, () -> walk(new ScanOptions()));
+      assertEquals(List.of("file"), walk(new ScanOptions().exclude("lock*")));
+    } finally {
+      locked.setExecutable(true);
+    }
+  }
+
+  @ParameterizedTest(name = "{0} matches {1}: {2}")
+  @CsvSource({
+      "*.lic, a/b/x.lic, true",
+      "*.lic, a/b/x.txt, false",
+      "?.lic, x.lic, true",
+      "a/*.lic, a/x.lic, true",
+      "a/*.lic, a/b/x.lic, false",
+      "a/**/x.lic, a/x.lic, true",
+      "a/**/x.lic, a/b/c/x.lic, true",
+      "**/b, a/b, true",
+      "/a, a, true",
+      "/a, b/a, false",
+      "node_modules/, x/node_modules, true"
+  })
+  @DisplayName("Glob syntax")
+  void globs(String glob, String path, boolean expected) {
+    var name = path.substring(path.lastIndexOf('/') + 1);
+    assertEquals(expected, Glob.compile(glob).matches(name, path));
+  }
+
+  @Test
+  @DisplayName("Filters must be valid")
+  void invalidFilters() {
+    assertThrows(IllegalArgumentException.class, () -> new ScanOptions().maxDepth(0));
+    assertThrows(IllegalArgumentException.class, () -> new ScanOptions().include(""));
+    assertThrows(IllegalArgumentException.class, () -> new ScanOptions().exclude((String[]) null));
+    assertFalse(Glob.compile("a").isPathPattern());
+  }
+
+  private List<String> walk(ScanOptions options) throws IOException {
+    var found = new ArrayList<String>();
+    try (var walker = new FileWalker(root, options, new ScanSession(options))) {
+      File file;
+      while ((file = walker.next()) != null) {
+        found.add(root.toPath().relativize(file.toPath()).toString());
+      }
+    }
+    found.sort(null);
+    return found;
+  }
+
+  private static void touch(File file) throws IOException {
+    assertTrue(file.createNewFile());
+  }
+}
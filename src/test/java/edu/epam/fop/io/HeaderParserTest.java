@@ -0,0 +1,211 @@
+package edu.epam.fop.io;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HeaderParserTest {
+
+  private static final String HEADER = "---\nLicense: GNU\nIssued by: GNU Commitet\nIssued on: 2020-01-01\n"
+      + "Expires on: 2025-01-01\n---\n\nLibrary description...\n";
+
+  @TempDir
+  File dir;
+
+  @ParameterizedTest(name = "Line separator {0}")
+  @ValueSource(strings = {"\n", "\r\n", "\r"})
+  @DisplayName("Any line separator is accepted")
+  void lineSeparators(String separator) throws IOException {
+    var header = read(HEADER.replace("\n", separator));
+    assertAll(
+        () -> assertTrue(header.isValid()),
+        () -> assertEquals("GNU", header.getLicenseName()),
+        () -> assertEquals("GNU Commitet", header.getIssuedBy()),
+        () -> assertEquals("2020-01-01", header.getIssuedOn()),
+        () -> assertEquals("2025-01-01", header.getExpiresOn())
+    );
+  }
+
+  @Test
+  @DisplayName("Blanks around markers, keys and values are ignored")
+  void blanksAreTrimmed() throws IOException {
+    var header = read("  ---  \n License :  GNU \t\nIssued by:Me\nIssued on: 2020-01-01\n\n ---\n");
+    assertTrue(header.isValid());
+    assertEquals("GNU", header.getLicenseName());
+    assertEquals("Me", header.getIssuedBy());
+    assertNull(header.getExpiresOn());
+  }
+
+  @ParameterizedTest(name = "Not a license: \"{0}\"")
+  @ValueSource(strings = {"", "---", "----\nLicense: GNU\n---\n", "\n---\nLicense: GNU\n---\n", "hello world!",
+      "-- -\nLicense: GNU\n---\n"})
+  @DisplayName("A file which does not start with the marker line is not a license")
+  void notALicense(String content) throws IOException {
+    assertFalse(read(content).isStarted());
+  }
+
+  @Test
+  @DisplayName("A huge file without line breaks is rejected after its first line")
+  void hugeSingleLine() throws IOException {
+    assertFalse(read("x".repeat(1 << 20)).isStarted());
+  }
+
+  @ParameterizedTest(name = "Archive starting with {0}")
+  @ValueSource(strings = {"PK\u0003\u0004", "PK\u0005\u0006"})
+  @DisplayName("Zip archives are recognised and rejected after the first read")
+  void archives(String signature) throws IOException {
+    var header = read(signature + "\u0014\u0000META-INF/LICENSE" + "\u0000".repeat(10_000) + "\n---\n");
+    var text = read("PKG\n---\n");
+    assertAll(
+        () -> assertTrue(header.isArchive()),
+        () -> assertFalse(header.isStarted()),
+        () -> assertFalse(text.isArchive())
+    );
+  }
+
+  @Test
+  @DisplayName("Headers are read under a character and a line budget")
+  void headerBudget() throws IOException {
+    var parser = new HeaderParser(128, 8);
+    var longValue = write("---\nLicense: " + "x".repeat(200) + "\n---\n");
+    var manyLines = write("---\n" + "Comment: x\n".repeat(10) + "---\n");
+    assertAll(
+        () -> assertTrue(parser.read(longValue).getError().contains("128 characters")),
+        () -> assertTrue(parser.read(manyLines).getError().contains("8 lines")),
+        () -> assertTrue(parser.read(write(HEADER)).isValid())
+    );
+  }
+
+  @ParameterizedTest(name = "Window of {0} characters")
+  @ValueSource(ints = {64, 100, 128, 4096})
+  @DisplayName("The size of the read window does not change the result")
+  void windowSizes(int window) throws IOException {
+    var file = write(HEADER.replace("Library description...", "y".repeat(10_000)));
+    var header = new HeaderParser(Math.max(window, 128), 64).read(file);
+    assertTrue(header.isValid());
+    assertEquals("2025-01-01", header.getExpiresOn());
+  }
+
+  @Test
+  @DisplayName("Dates must be yyyy-mm-dd")
+  void invalidDate() throws IOException {
+    var header = read(HEADER.replace("2020-01-01", "2020-1-01"));
+    assertTrue(header.isTerminated());
+    assertFalse(header.isValid());
+  }
+
+  @Test
+  @DisplayName("Identical headers are tokenized once and share their values")
+  void identicalHeadersShareValues() throws IOException {
+    var parser = new HeaderParser(4096, 64, 2);
+    var first = parser.read(write(HEADER));
+    var second = parser.read(write(HEADER.replace("Library description...", "Another library")));
+    var dedup = parser.getDedup();
+    assertAll(
+        () -> assertTrue(second.isValid()),
+        () -> assertSame(first.getIssuedBy(), second.getIssuedBy()),
+        () -> assertEquals(1, dedup.getHits()),
+        () -> assertEquals(1, dedup.getMisses())
+    );
+  }
+
+  @Test
+  @DisplayName("A new header replaces the one in its slot of the dedup cache")
+  void dedupReplacesSlot() throws IOException {
+    var parser = new HeaderParser(4096, 64, 1);
+    var gnu = write(HEADER);
+    var mit = write(HEADER.replace("GNU\n", "MIT\n"));
+    parser.read(gnu);
+    parser.read(mit); // replaces GNU
+    parser.read(gnu); // replaces MIT
+    parser.read(gnu);
+    var dedup = parser.getDedup();
+    assertAll(
+        () -> assertEquals(1, dedup.getHits()),
+        () -> assertEquals(3, dedup.getMisses()),
+        () -> assertEquals(2, dedup.getEvictions()),
+        () -> assertEquals(1, dedup.size())
+    );
+  }
+
+  @Test
+  @DisplayName("Threads sharing the dedup cache all get the right values and every read is counted")
+  void dedupSharedByThreads() throws Exception {
+    var parser = new HeaderParser(4096, 64, 2);
+    var files = new ArrayList<File>();
+    for (var name : List.of("GNU", "MIT", "BSD", "ASL")) {
+      files.add(write(HEADER.replace("GNU\n", name + "\n")));
+    }
+    var wrong = new ArrayList<String>();
+    var threads = new ArrayList<Thread>();
+    for (int t = 0; t < 4; t++) {
+      var thread = new Thread(() -> {
+        for (int i = 0; i < 500; i++) {
+          var header = parser.read(files.get(i % files.size()));
+          var expected = List.of("GNU", "MIT", "BSD", "ASL").get(i % files.size());
+          if (!header.isValid() || !expected.equals(header.getLicenseName())) {
+            synchronized (wrong) {
+              wrong.add(expected + " read as " + header.getLicenseName());
+            }
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (var thread : threads) {
+      thread.join();
+    }
+    var dedup = parser.getDedup();
+    assertAll(
+        () -> assertEquals(List.of(), wrong),
+        () -> assertEquals(2000, dedup.getHits() + dedup.getMisses())
+    );
+  }
+
+  @Test
+  @DisplayName("Failures of a shared header keep their line")
+  void dedupKeepsErrorLines() throws IOException {
+    var content = HEADER.replace("2025-01-01", "soon");
+    var parser = new HeaderParser(4096, 64, 4);
+    for (int i = 0; i < 2; i++) {
+      var header = parser.read(write(content));
+      assertEquals(Diagnostic.Type.INVALID_DATE, header.getErrorType());
+      assertEquals(5, header.getErrorLine());
+    }
+    assertEquals(5, new HeaderParser(4096, 64, 0).read(write(content.replace("\n", "\r\n"))).getErrorLine());
+  }
+
+  @ParameterizedTest(name = "Impossible date {0}")
+  @ValueSource(strings = {"2010-99-99", "2010-00-10", "2010-04-31", "2011-02-29", "1900-02-29", "2010-01-00"})
+  @DisplayName("Dates must exist in the calendar")
+  void impossibleDates(String date) throws IOException {
+    var header = read(HEADER.replace("2025-01-01", date));
+    assertEquals(Diagnostic.Type.INVALID_DATE, header.getErrorType());
+    assertTrue(read(HEADER.replace("2025-01-01", "2000-02-29")).isValid());
+  }
+
+  private LicenseHeader read(String content) throws IOException {
+    return HeaderParser.DEFAULT.read(write(content));
+  }
+
+  private File write(String content) throws IOException {
+    var file = File.createTempFile("license", "", dir);
+    Files.writeString(file.toPath(), content);
+    return file;
+  }
+}
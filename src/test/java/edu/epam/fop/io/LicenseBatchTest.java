@@ -0,0 +1,159 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertLinesMatch;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LicenseBatchTest {
+
+  @TempDir
+  File dir;
+
+  @ParameterizedTest(name = "{0} workers")
+  @ValueSource(ints = {1, 4})
+  @DisplayName("Every root gets the output a separate scan would give it")
+  void separateOutputs(int workers) throws IOException {
+    var batch = new LicenseBatch(new ScanOptions().workers(workers));
+    for (int i = 1; i <= 4; i++) {
+      batch.add(input(i), output(i));
+    }
+    var reports = batch.run();
+    assertEquals(4, reports.size());
+    for (int i = 1; i <= 4; i++) {
+      assertLinesMatch(expected(i).stream().sorted(), Files.readAllLines(output(i).toPath()).stream().sorted());
+    }
+  }
+
+  @Test
+  @DisplayName("Roots sharing an output are merged into it in the order they were added")
+  void mergedOutput() throws IOException {
+    var merged = new File(dir, "merged");
+    var batch = new LicenseBatch(new ScanOptions().workers(3).ordered(true)).output(merged);
+    var expected = new ArrayList<String>();
+    for (int i = 4; i >= 1; i--) {
+      batch.add(input(i));
+      var single = new File(dir, "single-" + i);
+      LicenseReader.collectLicenses(input(i), single);
+      expected.addAll(Files.readAllLines(single.toPath()));
+    }
+    batch.run();
+    assertLinesMatch(expected, Files.readAllLines(merged.toPath()));
+  }
+
+  @Test
+  @DisplayName("Roots covered by another root of the same output are not scanned twice")
+  void overlappingRoots() throws IOException {
+    var root = input(4);
+    var nested = root.listFiles(File::isDirectory)[0];
+    var merged = new File(dir, "merged");
+    var reports = new LicenseBatch(new ScanOptions().workers(2)).output(merged)
+        .add(nested)
+        .add(root)
+        .add(new File(root.getPath()))
+        .run();
+    assertLinesMatch(expected(4).stream().sorted(), Files.readAllLines(merged.toPath()).stream().sorted());
+    assertSame(reports.get(root), reports.get(nested));
+  }
+
+  @Test
+  @DisplayName("A root the outer walk never gets to, past the depth limit or excluded, is scanned on its own")
+  void unreachedNestedRoots() throws IOException {
+    var root = new File(dir, "root");
+    var nested = new File(root, "a/b");
+    assertTrue(new File(nested, "c").mkdirs());
+    for (var file : List.of(new File(root, "top"), new File(nested, "inner"), new File(nested, "c/deep"))) {
+      Files.writeString(file.toPath(),
+          "---\nLicense: " + file.getName() + "\nIssued by: Me\nIssued on: 2020-01-01\n---\n");
+    }
+    var merged = new File(dir, "merged");
+
+    var reports = new LicenseBatch(new ScanOptions().maxDepth(1)).output(merged).add(root).add(nested).run();
+    assertEquals(List.of("inner", "top"), names(merged));
+    assertNotSame(reports.get(root), reports.get(nested));
+
+    new LicenseBatch(new ScanOptions().exclude("a")).output(merged).add(root).add(nested).run();
+    assertEquals(List.of("deep", "inner", "top"), names(merged));
+
+    reports = new LicenseBatch(new ScanOptions().maxDepth(3)).output(merged).add(root).add(nested).run();
+    assertEquals(List.of("inner", "top"), names(merged));
+    assertSame(reports.get(root), reports.get(nested));
+  }
+
+  @Test
+  @DisplayName("A file root the outer walk returns at the depth limit is not scanned twice")
+  void nestedFileRootAtDepthLimit() throws IOException {
+    var root = new File(dir, "root");
+    var nested = new File(root, "a");
+    assertTrue(nested.mkdirs());
+    var top = new File(root, "top");
+    var inner = new File(nested, "inner");
+    for (var file : List.of(top, inner)) {
+      Files.writeString(file.toPath(),
+          "---\nLicense: " + file.getName() + "\nIssued by: Me\nIssued on: 2020-01-01\n---\n");
+    }
+    var merged = new File(dir, "merged");
+
+    var reports = new LicenseBatch(new ScanOptions().maxDepth(1)).output(merged).add(root).add(top).run();
+    assertEquals(List.of("top"), names(merged));
+    assertSame(reports.get(root), reports.get(top));
+
+    reports = new LicenseBatch(new ScanOptions().maxDepth(2)).output(merged).add(root).add(inner).run();
+    assertEquals(List.of("inner", "top"), names(merged));
+    assertSame(reports.get(root), reports.get(inner));
+
+    // The outer walk leaves out files which are not included, a file root is scanned all the same
+    reports = new LicenseBatch(new ScanOptions().include("t*")).output(merged).add(root).add(inner).run();
+    assertEquals(List.of("inner", "top"), names(merged));
+    assertNotSame(reports.get(root), reports.get(inner));
+  }
+
+  @Test
+  @DisplayName("A failing root fails the batch and keeps atomic outputs")
+  void failingRoot() throws IOException {
+    var broken = new File(dir, "broken");
+    var nested = new File(broken, "nested");
+    assertTrue(nested.mkdirs());
+    Files.copy(new File(getDirectory("invalid_licenses"), "missing_issued_by").toPath(),
+        new File(nested, "library").toPath());
+    var merged = new File(dir, "merged");
+    var batch = new LicenseBatch(new ScanOptions().workers(2).atomicOutput(true)).output(merged)
+        .add(input(1))
+        .add(broken);
+    assertThrows(IllegalArgumentException.class, batch::run);
+    assertFalse(merged.exists());
+    assertThrows(IllegalArgumentException.class, () -> new LicenseBatch(new ScanOptions()).add(input(1)).run());
+  }
+
+  private File output(int i) {
+    return new File(dir, "output-" + i);
+  }
+
+  // Sorted license names, one per line
+  private static List<String> names(File output) throws IOException {
+    return Files.readAllLines(output.toPath()).stream().map(line -> line.split(" ")[4]).sorted().toList();
+  }
+
+  private static File input(int i) {
+    return new File(getDirectory(String.format("case_%02d", i)), "input");
+  }
+
+  private static List<String> expected(int i) throws IOException {
+    return Files.readAllLines(new File(getDirectory(String.format("case_%02d", i)), "expected").toPath());
+  }
+}
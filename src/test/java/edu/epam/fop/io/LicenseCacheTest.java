@@ -0,0 +1,88 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Incremental scans backed by the license cache")
+class LicenseCacheTest {
+
+  @TempDir
+  File tmp;
+
+  private File root;
+  private File library;
+  private File output;
+  private File cache;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    root = new File(tmp, "input");
+    assertTrue(root.mkdir());
+    var source = new File(getDirectory("case_01"), "input");
+    for (var name : List.of("library_01", "library_02")) {
+      Files.copy(new File(source, name).toPath(), new File(root, name).toPath());
+    }
+    library = new File(root, "library_01");
+    output = new File(tmp, "output");
+    cache = new File(tmp, "licenses.cache");
+  }
+
+  @Test
+  @DisplayName("Unchanged fingerprint reuses the cached line, content hash notices the change")
+  void unchangedFilesAreNotParsedAgain() throws IOException {
+    LicenseReader.collectLicenses(root, output, new ScanOptions().incremental(cache));
+    assertTrue(cache.isFile());
+    assertEquals(expected(), sortedOutput());
+
+    // Same size and modification time, different content: only a content hash can tell
+    long modified = library.lastModified();
+    Files.writeString(library.toPath(), Files.readString(library.toPath()).replace("DDF", "XYZ"));
+    assertTrue(library.setLastModified(modified));
+
+    LicenseReader.collectLicenses(root, output, new ScanOptions().incremental(cache));
+    assertEquals(expected(), sortedOutput());
+
+    LicenseReader.collectLicenses(root, output, new ScanOptions().incremental(cache).contentHash(true));
+    assertEquals(expected().stream().map(line -> line.replace("DDF", "XYZ")).collect(Collectors.toList()),
+        sortedOutput());
+  }
+
+  @Test
+  @DisplayName("Deleted files are pruned and a corrupted cache falls back to a full scan")
+  void deletedFilesAndCorruptedCache() throws IOException {
+    LicenseReader.collectLicenses(root, output, new ScanOptions().incremental(cache).workers(2));
+    assertTrue(new File(root, "library_02").delete());
+    LicenseReader.collectLicenses(root, output, new ScanOptions().incremental(cache));
+    assertEquals(expected().subList(0, 1), sortedOutput());
+    assertTrue(Files.readAllLines(cache.toPath()).stream().noneMatch(line -> line.contains("library_02")));
+
+    long modified = library.lastModified();
+    Files.writeString(library.toPath(), Files.readString(library.toPath()).replace("DDF", "XYZ"));
+    assertTrue(library.setLastModified(modified));
+    Files.writeString(cache.toPath(), "garbage\n", StandardOpenOption.APPEND);
+
+    LicenseReader.collectLicenses(root, output, new ScanOptions().incremental(cache));
+    assertEquals(List.of(expected().get(0).replace("DDF", "XYZ")), sortedOutput());
+  }
+
+  private List<String> sortedOutput() throws IOException {
+    return Files.readAllLines(output.toPath()).stream().sorted().collect(Collectors.toList());
+  }
+
+  private static List<String> expected() throws IOException {
+    return Files.readAllLines(new File(getDirectory("case_01"), "expected").toPath()).stream()
+        .sorted().collect(Collectors.toList());
+  }
+}
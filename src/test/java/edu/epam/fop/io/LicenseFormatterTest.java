@@ -0,0 +1,186 @@
+package edu.epam.fop.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertLinesMatch;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LicenseFormatterTest {
+
+  @TempDir
+  File dir;
+
+  @Test
+  @DisplayName("JSON Lines escapes quotes, backslashes, control and non-ASCII characters")
+  void jsonEscaping() {
+    var license = new License(new File("lib"), "GNU \"GPL\"", "C:\\Users\tMe \u00e9", "2020-01-01", null);
+    var out = new StringBuilder();
+    LicenseFormatter.JSON_LINES.forScan(null).format(license, out);
+    assertEquals("{\"path\":\"lib\",\"license\":\"GNU \\\"GPL\\\"\",\"issuedBy\":\"C:\\\\Users\\tMe \\u00e9\","
+        + "\"issuedOn\":\"2020-01-01\",\"expiresOn\":null}" + System.lineSeparator(), out.toString());
+  }
+
+  @Test
+  @DisplayName("CSV quotes only the fields which need it and doubles their quotes")
+  void csvQuoting() {
+    var formatter = LicenseFormatter.CSV.forScan(null);
+    var out = new StringBuilder();
+    formatter.start(out);
+    formatter.format(new License(new File("lib"), "MIT", "Acme, Inc.", "2020-01-01", "2030-12-31"), out);
+    formatter.format(new License(new File("lib"), "Say \"hi\"", "Me", "2020-01-01", null), out);
+    assertEquals("path,license,issued_by,issued_on,expires_on\r\n"
+        + "lib,MIT,\"Acme, Inc.\",2020-01-01,2030-12-31\r\n"
+        + "lib,\"Say \"\"hi\"\"\",Me,2020-01-01,\r\n", out.toString());
+  }
+
+  @ParameterizedTest(name = "{0} workers")
+  @ValueSource(ints = {1, 4})
+  @DisplayName("Paths are written relative to the root, with '/' between names")
+  void relativePaths(int workers) throws IOException {
+    var root = new File(dir, "root");
+    write(new File(root, "a/b/lib"), "MIT");
+    write(new File(root, "c/lib"), "GNU");
+    var output = new File(dir, "output.csv");
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(workers)
+        .formatter(LicenseFormatter.CSV));
+    var lines = Files.readAllLines(output.toPath());
+    assertEquals("path,license,issued_by,issued_on,expires_on", lines.get(0));
+    assertLinesMatch(List.of("a/b/lib,MIT,Me,2020-01-01,", "c/lib,GNU,Me,2020-01-01,"),
+        lines.subList(1, lines.size()).stream().sorted().toList());
+
+    LicenseReader.collectLicenses(new File(root, "c/lib"), output, new ScanOptions()
+        .formatter(LicenseFormatter.JSON_LINES));
+    assertEquals("{\"path\":\"lib\",", Files.readAllLines(output.toPath()).get(0).substring(0, 14));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @ValueSource(strings = {"JSON_LINES", "CSV"})
+  @DisplayName("Licenses taken from the cache are written with the same relative paths")
+  void cachedLicensesKeepRelativePaths(String format) throws IOException {
+    var formatter = "CSV".equals(format) ? LicenseFormatter.CSV : LicenseFormatter.JSON_LINES;
+    write(new File(dir, "root/a/b/lib"), "MIT");
+    write(new File(dir, "root/c/lib"), "GNU");
+    // A relative root, the cache keys its entries by absolute path
+    var root = new File(Path.of("").toAbsolutePath().relativize(dir.toPath().resolve("root")).toString());
+    var options = new ScanOptions().formatter(formatter).incremental(new File(dir, "cache"));
+    var cold = new File(dir, "cold");
+    var warm = new File(dir, "warm");
+    LicenseReader.collectLicenses(root, cold, options);
+    LicenseReader.collectLicenses(root, warm, options);
+    assertEquals(Files.readAllLines(cold.toPath()), Files.readAllLines(warm.toPath()));
+    assertTrue(Files.readString(warm.toPath()).contains("a/b/lib"));
+    assertFalse(Files.readString(warm.toPath()).contains(dir.getPath()));
+  }
+
+  @Test
+  @DisplayName("Sorted shards are merged by whole records, which keep their line ends and line breaks")
+  void sortedShards() throws IOException {
+    var root = new File(dir, "root");
+    var names = new ArrayList<String>();
+    for (int i = 0; i < 20; i++) {
+      var name = "d" + i % 3 + "/lib-" + (char) ('a' + i);
+      write(new File(root, name), "MIT");
+      names.add(name);
+    }
+    names.sort(null);
+    var output = new File(dir, "output.csv");
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(3).shardedOutput(true)
+        .formatter(LicenseFormatter.CSV));
+    var csv = Files.readString(output.toPath());
+    assertFalse(csv.replace("\r\n", "").contains("\n"));
+    var rows = List.of(csv.split("\r\n"));
+    assertEquals(CsvFormatter.HEADER, rows.get(0));
+    assertEquals(names, rows.subList(1, rows.size()).stream().map(row -> row.split(",")[0]).toList());
+
+    // Each record spans two lines, the second one starting with blanks
+    var twoLines = new LicenseFormatter() {
+      @Override
+      public void format(License license, StringBuilder out) {
+        out.append(license.getFile().getName()).append(":\n  ").append(license.getName()).append('\n');
+      }
+    };
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(3).shardedOutput(true)
+        .formatter(twoLines));
+    var expected = new StringBuilder();
+    names.stream().map(name -> name.substring(name.indexOf('/') + 1)).sorted()
+        .forEach(name -> expected.append(name).append(":\n  MIT\n"));
+    assertEquals(expected.toString(), Files.readString(output.toPath()));
+  }
+
+  @ParameterizedTest(name = "sorted {0}")
+  @ValueSource(booleans = {false, true})
+  @DisplayName("Every kept CSV shard has its own header, the output only lists the shards")
+  void keptCsvShards(boolean sorted) throws IOException {
+    var root = new File(dir, "root");
+    var names = new ArrayList<String>();
+    for (int i = 0; i < 10; i++) {
+      var name = "d" + i % 3 + "/lib-" + i;
+      write(new File(root, name), "MIT");
+      names.add(name);
+    }
+    names.sort(null);
+    var output = new File(dir, "output.csv");
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(2).shardedOutput(sorted)
+        .keepShards(true).formatter(LicenseFormatter.CSV));
+    var parts = Files.readAllLines(output.toPath());
+    assertLinesMatch(List.of("output.csv.part-000", "output.csv.part-001"), parts);
+    var paths = new ArrayList<String>();
+    for (String part : parts) {
+      var rows = Files.readAllLines(new File(dir, part).toPath());
+      assertEquals(CsvFormatter.HEADER, rows.get(0));
+      rows.subList(1, rows.size()).forEach(row -> paths.add(row.split(",")[0]));
+    }
+    paths.sort(null);
+    assertEquals(names, paths);
+  }
+
+  @Test
+  @DisplayName("A summary cant be split into kept shards")
+  void keptSummaryShards() throws IOException {
+    var root = new File(dir, "root");
+    write(new File(root, "mit"), "MIT");
+    var output = new File(dir, "summary");
+    assertThrows(IllegalArgumentException.class, () -> LicenseReader.collectLicenses(root, output,
+        new ScanOptions().workers(2).shardedOutput(false).keepShards(true).formatter(LicenseFormatter.SUMMARY)));
+    assertFalse(output.exists());
+    assertFalse(new File(dir, "summary.part-000").exists());
+  }
+
+  @ParameterizedTest(name = "{0} workers")
+  @ValueSource(ints = {1, 4})
+  @DisplayName("The summary has one block per license and issuer")
+  void summary(int workers) throws IOException {
+    var root = new File(dir, "root");
+    for (int i = 0; i < 5; i++) {
+      write(new File(root, "mit-" + i), "MIT");
+    }
+    write(new File(root, "gnu"), "GNU");
+    var output = new File(dir, "summary");
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(workers)
+        .formatter(LicenseFormatter.SUMMARY));
+    assertLinesMatch(List.of("# License summary: 6 files",
+            "", "LicenseName: GNU", "LicenseIssuer: Me", "FileCount: 1", "UnlimitedCount: 1",
+            "FirstIssuedOn: 2020-01-01",
+            "", "LicenseName: MIT", "LicenseIssuer: Me", "FileCount: 5", "UnlimitedCount: 5",
+            "FirstIssuedOn: 2020-01-01"),
+        Files.readAllLines(output.toPath()));
+  }
+
+  private static void write(File file, String license) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.writeString(file.toPath(), "---\nLicense: " + license + "\nIssued by: Me\nIssued on: 2020-01-01\n---\n");
+  }
+}
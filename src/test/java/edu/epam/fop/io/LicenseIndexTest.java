@@ -0,0 +1,87 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("In-memory license index")
+class LicenseIndexTest {
+
+  @TempDir
+  File tmp;
+
+  @Test
+  @DisplayName("A scan can fill an index which gives back the same licenses")
+  void indexFromScan() throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var builder = new LicenseIndex.Builder();
+    var output = new File(tmp, "output");
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(2).index(builder));
+    var index = builder.build();
+
+    var lines = index.all().stream().map(License::toString).sorted().collect(Collectors.toList());
+    assertEquals(Files.readAllLines(output.toPath()).stream().sorted().collect(Collectors.toList()), lines);
+    for (int row = 0; row < index.size(); row++) {
+      assertTrue(index.get(row).getFile().isFile());
+    }
+  }
+
+  @Test
+  @DisplayName("Queries by name, issuer and expiry")
+  void queries() {
+    var index = new LicenseIndex.Builder()
+        .add(license("a", "GPL", "FSF", "2020-01-01", "2026-06-30"))
+        .add(license("b", "MIT", "MIT", "2019-05-05", null))
+        .add(license("c", "GPL", "Acme", "2021-01-01", "2025-01-01"))
+        .add(license("d", "GPL", "FSF", "2022-02-02", "2030-12-31"))
+        .build();
+
+    assertEquals(List.of("a", "c", "d"), files(index.withName("GPL")));
+    assertEquals(List.of("a", "d"), files(index.issuedBy("FSF")));
+    assertEquals(List.of(), files(index.withName("Apache")));
+    assertEquals(List.of("c", "a"), files(index.expiringBefore(LocalDate.of(2027, 1, 1))));
+    assertEquals(List.of("a"), files(index.expiringBetween(LocalDate.of(2025, 1, 2), LocalDate.of(2030, 12, 31))));
+    assertEquals(List.of("b"), files(index.unlimited()));
+    assertEquals(Set.of("GPL", "MIT"), index.getNames());
+    assertEquals("[2022-02-02 - 2030-12-31]", index.get(3).toString().replaceAll(".*(\\[.*])", "$1"));
+    assertThrows(IndexOutOfBoundsException.class, () -> index.get(4));
+  }
+
+  @Test
+  @DisplayName("Dates before 1970 and query bounds far outside the header years")
+  void extremeDates() {
+    var index = new LicenseIndex.Builder()
+        .add(license("a", "GPL", "FSF", "0001-01-01", "1969-12-31"))
+        .add(license("b", "MIT", "MIT", "1900-02-28", "9999-12-31"))
+        .add(license("c", "GPL", "FSF", "2000-02-29", null))
+        .build();
+
+    assertEquals(List.of("a", "b"), files(index.expiringBefore(LocalDate.MAX)));
+    assertEquals(List.of("a"), files(index.expiringBetween(LocalDate.MIN, LocalDate.of(1970, 1, 1))));
+    assertEquals(List.of("b"), files(index.expiringBetween(LocalDate.of(1970, 1, 1), LocalDate.MAX)));
+    assertEquals(List.of(), files(index.expiringBefore(LocalDate.MIN)));
+    assertEquals(List.of("c"), files(index.unlimited()));
+    assertEquals("[0001-01-01 - 1969-12-31]", index.get(0).toString().replaceAll(".*(\\[.*])", "$1"));
+    assertEquals("[2000-02-29 - unlimited]", index.get(2).toString().replaceAll(".*(\\[.*])", "$1"));
+  }
+
+  private static License license(String file, String name, String issuer, String issuedOn, String expiresOn) {
+    return new License(new File("libs", file), name, issuer, issuedOn, expiresOn);
+  }
+
+  private static List<String> files(List<License> licenses) {
+    return licenses.stream().map(license -> license.getFile().getName()).collect(Collectors.toList());
+  }
+}
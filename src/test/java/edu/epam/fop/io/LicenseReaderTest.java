@@ -1,23 +1,27 @@
 package edu.epam.fop.io;
 
+import static edu.epam.fop.io.TestFiles.getDirectory;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertLinesMatch;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
-import java.net.URL;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -95,6 +99,184 @@ class LicenseReaderTest {
   @DisplayName("Positive test cases")
   void test(File rootDirectory, File outputFile, File expectedFile) {
     licenseReader.collectLicenses(rootDirectory, outputFile);
+    assertSameLines(expectedFile, outputFile);
+  }
+
+  @ParameterizedTest(name = "For directory {0} scanned in parallel expected file content is {2}")
+  @MethodSource("test")
+  @DisplayName("Positive test cases with several workers")
+  void parallelTest(File rootDirectory, File outputFile, File expectedFile) {
+    licenseReader.collectLicenses(rootDirectory, outputFile, new ScanOptions().workers(4));
+    assertSameLines(expectedFile, outputFile);
+  }
+
+  @Test
+  @DisplayName("Ordered parallel scan keeps the sequential output order")
+  void orderedParallelScanTest() throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var sequential = new File(getDirectory("case_04"), "output-sequential");
+    var parallel = new File(getDirectory("case_04"), "output-ordered");
+    licenseReader.collectLicenses(root, sequential);
+    licenseReader.collectLicenses(root, parallel, new ScanOptions().workers(3).ordered(true));
+    assertLinesMatch(Files.readAllLines(sequential.toPath()), Files.readAllLines(parallel.toPath()));
+  }
+
+  @Test
+  @DisplayName("Invalid nested license stops a parallel scan")
+  void parallelScanFailsOnNestedInvalidLicense(@TempDir File root) throws IOException {
+    var nested = new File(root, "nested");
+    assertTrue(nested.mkdir());
+    Files.copy(new File(getDirectory("invalid_licenses"), "missing_issued_by").toPath(),
+        new File(nested, "library").toPath());
+    assertThrows(IllegalArgumentException.class,
+        () -> licenseReader.collectLicenses(root, new File(root, "output"), new ScanOptions().workers(4)));
+  }
+
+  @ParameterizedTest(name = "For directory {0} written in tiny batches expected file content is {2}")
+  @MethodSource("test")
+  @DisplayName("Output batching does not change the output")
+  void batchedOutputTest(File rootDirectory, File outputFile, File expectedFile) {
+    licenseReader.collectLicenses(rootDirectory, outputFile,
+        new ScanOptions().bufferSize(16).flushEvery(1, 32).atomicOutput(true));
+    assertSameLines(expectedFile, outputFile);
+    licenseReader.collectLicenses(rootDirectory, outputFile,
+        new ScanOptions().workers(3).flushEvery(2, 1 << 20).atomicOutput(true));
+    assertSameLines(expectedFile, outputFile);
+    assertFalse(new File(outputFile.getPath() + ".tmp").exists());
+  }
+
+  @Test
+  @DisplayName("Atomic output keeps the previous output when the scan fails")
+  void atomicOutputTest(@TempDir File root) throws IOException {
+    var output = new File(root, "output");
+    Files.writeString(output.toPath(), "previous\n");
+    var nested = new File(root, "nested");
+    assertTrue(nested.mkdir());
+    Files.copy(new File(getDirectory("invalid_licenses"), "missing_issued_by").toPath(),
+        new File(nested, "library").toPath());
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> licenseReader.collectLicenses(root, output, new ScanOptions().atomicOutput(true))),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> licenseReader.collectLicenses(root, output, new ScanOptions().workers(2).atomicOutput(true)))
+    );
+    assertLinesMatch(List.of("previous"), Files.readAllLines(output.toPath()));
+    assertFalse(new File(output.getPath() + ".tmp").exists());
+  }
+
+  @ParameterizedTest(name = "For directory {0} written through shards expected file content is {2}")
+  @MethodSource("test")
+  @DisplayName("Sharded output gives the same lines, sorted ones in order")
+  void shardedOutputTest(File rootDirectory, File outputFile, File expectedFile) throws IOException {
+    licenseReader.collectLicenses(rootDirectory, outputFile, new ScanOptions().workers(3).shardedOutput(false));
+    assertSameLines(expectedFile, outputFile);
+    licenseReader.collectLicenses(rootDirectory, outputFile, new ScanOptions().workers(3).shardedOutput(true));
+    assertLinesMatch(Files.readAllLines(expectedFile.toPath()).stream().sorted(),
+        Files.readAllLines(outputFile.toPath()).stream());
+    assertFalse(new File(outputFile.getPath() + ".part-000").exists());
+  }
+
+  @Test
+  @DisplayName("An interrupted parallel scan leaves the thread interrupted")
+  void interruptedParallelScan(@TempDir File dir) {
+    scanInterrupted(new File(dir, "output"), new ScanOptions().workers(2));
+  }
+
+  @Test
+  @DisplayName("An interrupted pipelined scan leaves the thread interrupted")
+  void interruptedPipeline(@TempDir File dir) {
+    scanInterrupted(new File(dir, "output"), new ScanOptions().workers(2).pipeline(4));
+  }
+
+  @Test
+  @DisplayName("Kept shards are listed in the output and hold all the lines")
+  void keptShardsTest(@TempDir File dir) throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var output = new File(dir, "output");
+    licenseReader.collectLicenses(root, output, new ScanOptions().workers(2).shardedOutput(true).keepShards(true));
+    var lines = new ArrayList<String>();
+    var parts = Files.readAllLines(output.toPath());
+    assertLinesMatch(List.of("output.part-000", "output.part-001"), parts);
+    for (String part : parts) {
+      var partLines = Files.readAllLines(new File(dir, part).toPath());
+      assertLinesMatch(partLines.stream().sorted(), partLines.stream());
+      lines.addAll(partLines);
+    }
+    assertLinesMatch(Files.readAllLines(new File(getDirectory("case_04"), "expected").toPath()).stream().sorted(),
+        lines.stream().sorted());
+    assertThrows(IllegalArgumentException.class, () -> licenseReader.collectLicenses(root, output,
+        new ScanOptions().workers(2).ordered(true).shardedOutput(false)));
+  }
+
+  @ParameterizedTest(name = "For directory {0} scanned by a pipeline expected file content is {2}")
+  @MethodSource("test")
+  @DisplayName("The pipelined scan gives the same output, ordered ones in traversal order")
+  void pipelinedTest(File rootDirectory, File outputFile, File expectedFile) throws IOException {
+    licenseReader.collectLicenses(rootDirectory, outputFile, new ScanOptions().workers(3).pipeline(1));
+    assertSameLines(expectedFile, outputFile);
+    var sequential = new File(outputFile.getPath() + "-sequential");
+    licenseReader.collectLicenses(rootDirectory, sequential);
+    licenseReader.collectLicenses(rootDirectory, outputFile, new ScanOptions().workers(2).ordered(true).pipeline(2));
+    assertLinesMatch(Files.readAllLines(sequential.toPath()), Files.readAllLines(outputFile.toPath()));
+  }
+
+  @Test
+  @DisplayName("Invalid nested license stops a pipelined scan")
+  void pipelinedScanFailsOnNestedInvalidLicense(@TempDir File root) throws IOException {
+    var nested = new File(root, "nested");
+    assertTrue(nested.mkdir());
+    for (int i = 0; i < 50; i++) {
+      Files.copy(new File(getDirectory("case_01"), "input/library_01").toPath(), new File(root, "library" + i).toPath());
+    }
+    Files.copy(new File(getDirectory("invalid_licenses"), "missing_issued_by").toPath(),
+        new File(nested, "library").toPath());
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> licenseReader.collectLicenses(root,
+            new File(root, "output"), new ScanOptions().workers(4).pipeline(4))),
+        () -> assertThrows(IllegalArgumentException.class, () -> licenseReader.collectLicenses(root,
+            new File(root, "output"), new ScanOptions().workers(4).ordered(true).pipeline(1)))
+    );
+  }
+
+  @ParameterizedTest(name = "Licenses of directory {0} iterated lazily match {2}")
+  @MethodSource("test")
+  @DisplayName("Iterating licenses gives the same result as collecting them")
+  void iterateLicensesTest(File rootDirectory, File outputFile, File expectedFile) throws IOException {
+    var actual = new ArrayList<String>();
+    for (License license : LicenseReader.licenses(rootDirectory)) {
+      actual.add(license.toString());
+    }
+    actual.sort(null);
+    assertLinesMatch(Files.readAllLines(expectedFile.toPath()).stream().sorted(), actual.stream());
+  }
+
+  @Test
+  @DisplayName("Iteration can stop at the first matching license")
+  void iterationStopsEarly(@TempDir File root) throws IOException {
+    var source = new File(getDirectory("case_01"), "input");
+    Files.copy(new File(source, "library_02").toPath(), new File(root, "library_02").toPath());
+    Files.copy(new File(source, "library_01").toPath(), new File(root, "library_01").toPath());
+    var iterator = LicenseReader.licenses(root).iterator();
+    License first = iterator.next();
+    // The second file is not read before it is asked for, so deleting it now ends the iteration
+    assertTrue(new File(root, first.getFile().getName().equals("library_01") ? "library_02" : "library_01").delete());
+    assertFalse(iterator.hasNext());
+  }
+
+  // Workers which are done before the join leave it nothing to wait for, the scan then completes
+  private void scanInterrupted(File output, ScanOptions options) {
+    var root = new File(getDirectory("case_04"), "input");
+    Thread.currentThread().interrupt();
+    try {
+      licenseReader.collectLicenses(root, output, options);
+      assertSameLines(new File(getDirectory("case_04"), "expected"), output);
+    } catch (IllegalArgumentException e) {
+      // Stopped while it waited for the workers
+    }
+    assertTrue(Thread.interrupted());
+  }
+
+  private static void assertSameLines(File expectedFile, File outputFile) {
     try {
       Stream<String> actualLines = Files.readAllLines(outputFile.toPath()).stream().sorted();
       Stream<String> expectedLines = Files.readAllLines(expectedFile.toPath()).stream().sorted();
@@ -118,16 +300,4 @@ class LicenseReaderTest {
     File output = new File(root, "output-" + random.nextInt());
     return arguments(input, output, expected);
   }
-
-  private static File getDirectory(String path) {
-    URL url = LicenseReaderTest.class.getClassLoader().getResource(path);
-    if (url == null) {
-      throw new IllegalStateException();
-    }
-    try {
-      return new File(url.toURI());
-    } catch (URISyntaxException e) {
-      throw new IllegalStateException(e);
-    }
-  }
 }
\ No newline at end of file
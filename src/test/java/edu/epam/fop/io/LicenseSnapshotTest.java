@@ -0,0 +1,80 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Binary license snapshots")
+class LicenseSnapshotTest {
+
+  @TempDir
+  File tmp;
+
+  @Test
+  @DisplayName("A snapshot reloads the licenses it was written from")
+  void roundTrip() {
+    var root = new File(getDirectory("case_04"), "input");
+    var snapshot = new File(tmp, "licenses.snapshot");
+    LicenseSnapshot.write(snapshot, LicenseReader.licenses(root));
+
+    var index = LicenseSnapshot.load(snapshot);
+    assertEquals(lines(LicenseIndex.of(LicenseReader.licenses(root)).all()), lines(index.all()));
+    assertEquals(index.size(), index.all().stream().filter(license -> license.getFile().isFile()).count());
+  }
+
+  @Test
+  @DisplayName("Any string and date survives the round trip")
+  void specialCharacters() {
+    var licenses = List.of(
+        new License(new File("libs/бібліотека", "lib\\1"),
+            "GPL\tv3", "Issuer é中", "1999-12-31", "2100-01-01"),
+        new License(new File("plain"), "MIT", "Issuer é中", "2020-02-29", null),
+        new License(new File("/abs/path", "x"), "", "S", "0001-01-01", "0001-01-01"));
+    var snapshot = new File(tmp, "special.snapshot");
+    LicenseSnapshot.write(snapshot, licenses);
+    assertEquals(lines(licenses), lines(LicenseSnapshot.load(snapshot).all()));
+    assertEquals(List.of("libs/бібліотека/lib\\1", "plain", "/abs/path/x"),
+        LicenseSnapshot.load(snapshot).all().stream().map(l -> l.getFile().getPath()).collect(Collectors.toList()));
+
+    LicenseSnapshot.write(snapshot, List.of());
+    assertEquals(0, LicenseSnapshot.load(snapshot).size());
+  }
+
+  @Test
+  @DisplayName("Damaged snapshots are rejected")
+  void corruption() throws IOException {
+    var snapshot = new File(tmp, "licenses.snapshot");
+    LicenseSnapshot.write(snapshot, LicenseReader.licenses(new File(getDirectory("case_01"), "input")));
+    var content = Files.readString(snapshot.toPath());
+
+    var flipped = content.toCharArray();
+    int body = content.indexOf('\n') + 5;
+    flipped[body] = flipped[body] == 'a' ? 'b' : 'a';
+    Files.writeString(snapshot.toPath(), new String(flipped));
+    assertThrows(IllegalArgumentException.class, () -> LicenseSnapshot.load(snapshot));
+
+    Files.writeString(snapshot.toPath(), content.substring(0, content.length() / 2));
+    assertThrows(IllegalArgumentException.class, () -> LicenseSnapshot.load(snapshot));
+
+    Files.writeString(snapshot.toPath(), content);
+    Files.writeString(snapshot.toPath(), "garbage\n", StandardOpenOption.APPEND);
+    assertThrows(IllegalArgumentException.class, () -> LicenseSnapshot.load(snapshot));
+
+    Files.writeString(snapshot.toPath(), "License for x is y\n");
+    assertThrows(IllegalArgumentException.class, () -> LicenseSnapshot.load(snapshot));
+  }
+
+  private static List<String> lines(List<License> licenses) {
+    return licenses.stream().map(License::toString).sorted().collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,49 @@
+package edu.epam.fop.io;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LicenseTest {
+
+  @Test
+  @DisplayName("Dates are available as LocalDate and epoch days")
+  void typedDates() {
+    var license = new License(new File("lib"), "GNU", "Me", "2020-02-29", "2025-01-01");
+    var unlimited = new License(new File("lib"), "GNU", "Me", "2020-02-29", null);
+    assertAll(
+        () -> assertEquals(LocalDate.of(2020, 2, 29), license.getIssuedOnDate()),
+        () -> assertEquals(Optional.of(LocalDate.of(2025, 1, 1)), license.getExpiresOnDate()),
+        () -> assertEquals(LocalDate.of(2025, 1, 1).toEpochDay(), license.getExpiresOnEpochDay()),
+        () -> assertEquals(Optional.empty(), unlimited.getExpiresOnDate()),
+        () -> assertEquals(Long.MAX_VALUE, unlimited.getExpiresOnEpochDay()),
+        () -> assertFalse(license.isExpiredOn(LocalDate.of(2025, 1, 1))),
+        () -> assertTrue(license.isExpiredOn(LocalDate.of(2025, 1, 2))),
+        () -> assertFalse(unlimited.isExpiredOn(LocalDate.MAX))
+    );
+  }
+
+  @Test
+  @DisplayName("Epoch days match java.time over the whole calendar")
+  void epochDays() {
+    for (var date = LocalDate.of(0, 1, 1); date.getYear() < 2500; date = date.plusDays(13)) {
+      assertEquals(date.toEpochDay(), IsoDate.epochDay(date.toString()), date::toString);
+    }
+    assertEquals(LocalDate.of(9999, 12, 31).toEpochDay(), IsoDate.epochDay("9999-12-31"));
+  }
+
+  @Test
+  @DisplayName("A license can't be built with an impossible date")
+  void impossibleDate() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new License(new File("lib"), "GNU", "Me", "2010-99-99", null));
+  }
+}
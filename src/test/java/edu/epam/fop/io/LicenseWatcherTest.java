@@ -0,0 +1,153 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertLinesMatch;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LicenseWatcherTest {
+
+  private static final String HEADER = "---\nLicense: GNU\nIssued by: GNU Commitet\nIssued on: 2020-01-01\n---\n";
+
+  @TempDir
+  File dir;
+
+  private final List<String> events = new ArrayList<>();
+
+  private final LicenseWatchListener listener = new LicenseWatchListener() {
+    @Override
+    public void licensesChanged(List<License> added, List<License> updated, List<License> removed) {
+      events.add(added.size() + "/" + updated.size() + "/" + removed.size());
+    }
+
+    @Override
+    public void fileRejected(Diagnostic diagnostic) {
+      events.add(diagnostic.type().name());
+    }
+  };
+
+  @Test
+  @DisplayName("Every round publishes what changed and rewrites the output")
+  void changesArePublished() throws IOException {
+    var root = new File(dir, "root");
+    var output = new File(dir, "output");
+    assertTrue(root.mkdir());
+    var first = write(new File(root, "first"), HEADER);
+    var watcher = new LicenseWatcher(root, new ScanOptions()).output(output).listener(listener).settle(0);
+
+    watcher.poll();
+    assertLinesMatch(List.of("License for .*first is GNU issued by GNU Commitet \\[2020-01-01 - unlimited\\]"),
+        Files.readAllLines(output.toPath()));
+
+    var nested = new File(root, "nested");
+    assertTrue(nested.mkdir());
+    write(new File(nested, "second"), HEADER.replace("GNU\n", "MIT\n"));
+    watcher.poll();
+    assertEquals(2, Files.readAllLines(output.toPath()).size());
+
+    write(first, HEADER.replace("2020-01-01", "2021-01-01") + "longer now");
+    watcher.poll();
+    watcher.poll(); // nothing changed, nothing published
+
+    write(first, HEADER.replace("Issued by: GNU Commitet\n", ""));
+    assertTrue(new File(nested, "second").delete());
+    watcher.poll();
+
+    assertLinesMatch(List.of("1/0/0", "1/0/0", "0/1/0", "MISSING_PROPERTY", "0/0/2"), events);
+    assertEquals(List.of(), Files.readAllLines(output.toPath()));
+    assertEquals(0, watcher.getLicenses().size());
+  }
+
+  @Test
+  @DisplayName("Files which are still being written wait for a later round")
+  void recentFilesSettleFirst() throws IOException {
+    var watcher = new LicenseWatcher(dir, new ScanOptions()).listener(listener).settle(60_000);
+    watcher.poll();
+    write(new File(dir, "license"), HEADER);
+    watcher.poll();
+    assertEquals(0, watcher.getLicenses().size());
+    assertTrue(new File(dir, "license").setLastModified(System.currentTimeMillis() - 120_000));
+    watcher.poll();
+    assertEquals(1, watcher.getLicenses().size());
+  }
+
+  @Test
+  @DisplayName("The first round takes files written just before start, with the default settle time")
+  void firstRoundTakesRecentFiles() throws IOException {
+    var root = new File(dir, "root");
+    var output = new File(dir, "output");
+    assertTrue(root.mkdir());
+    Files.writeString(new File(root, "license").toPath(), HEADER);
+    var thread = new ArrayList<Thread>();
+    var onThread = new LicenseWatchListener() {
+      @Override
+      public void licensesChanged(List<License> added, List<License> updated, List<License> removed) {
+        thread.add(Thread.currentThread());
+      }
+    };
+    try (var watcher = new LicenseWatcher(root, new ScanOptions()).output(output).listener(onThread).start()) {
+      assertEquals(1, watcher.getLicenses().size());
+      assertLinesMatch(List.of("License for .*license is GNU .*"), Files.readAllLines(output.toPath()));
+      assertEquals(List.of(Thread.currentThread()), thread);
+    }
+  }
+
+  @Test
+  @DisplayName("An unusable directory is reported once, not every round")
+  void directoryProblemsAreReportedOnce() throws IOException {
+    var locked = new File(dir, "locked");
+    assertTrue(locked.mkdir());
+    assertTrue(locked.setExecutable(false));
+    assumeFalse(locked.canExecute(), "Permissions are not enforced for this user");
+    try {
+      var watcher = new LicenseWatcher(dir, new ScanOptions()).listener(listener).settle(0);
+      watcher.poll();
+      watcher.poll();
+      assertLinesMatch(List.of("UNREADABLE_DIRECTORY", "0/0/0"), events);
+    } finally {
+      locked.setExecutable(true);
+    }
+  }
+
+  @Test
+  @DisplayName("No round runs once the watcher is closed, closing twice is fine")
+  void closedWatcherStops() throws IOException {
+    write(new File(dir, "license"), HEADER);
+    var watcher = new LicenseWatcher(dir, new ScanOptions()).listener(listener).settle(0);
+    watcher.close();
+    watcher.poll();
+    watcher.close();
+    assertEquals(List.of(), events);
+    assertEquals(0, watcher.getLicenses().size());
+  }
+
+  @Test
+  @DisplayName("The background thread keeps the output up to date until closed")
+  void backgroundWatch() throws Exception {
+    var root = new File(getDirectory("case_01"), "input");
+    var output = new File(dir, "output");
+    try (var watcher = new LicenseWatcher(root, new ScanOptions()).output(output).interval(10).settle(0).start()) {
+      assertLinesMatch(Files.readAllLines(new File(getDirectory("case_01"), "expected").toPath()).stream().sorted(),
+          Files.readAllLines(output.toPath()).stream().sorted());
+      assertThrows(IllegalStateException.class, watcher::start);
+    }
+  }
+
+  private static File write(File file, String content) throws IOException {
+    Files.writeString(file.toPath(), content);
+    // Keep the fingerprint changing even within the file system's timestamp resolution
+    assertTrue(file.setLastModified(file.lastModified() - 1000 - content.length()));
+    return file;
+  }
+}
@@ -0,0 +1,115 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertLinesMatch;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("ProcessFile shared between threads")
+class ProcessFileConcurrencyTest {
+
+  private static final int THREADS = 16;
+  private static final int ITERATIONS = 2_000;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("Every thread gets the line of the file it asked for")
+  void sharedProcessorUnderContention() throws Exception {
+    var processor = new ProcessFile();
+    Map<File, String> expected = new LinkedHashMap<>();
+    for (int i = 1; i <= 4; i++) {
+      try (Stream<Path> files = Files.walk(new File(getDirectory(String.format("case_%02d", i)), "input").toPath())) {
+        files.map(Path::toFile)
+            .filter(File::isFile)
+            .forEach(file -> expected.put(file, processor.processFileOrNull(file)));
+      }
+    }
+    var invalid = getDirectory("invalid_licenses").listFiles();
+    var files = new ArrayList<>(expected.keySet());
+    var barrier = new CyclicBarrier(THREADS);
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      tasks.add(() -> {
+        barrier.await();
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < ITERATIONS; i++) {
+          if (random.nextInt(8) == 0) {
+            var file = invalid[random.nextInt(invalid.length)];
+            assertThrows(IllegalArgumentException.class, () -> processor.processFile(file));
+          } else {
+            var file = files.get(random.nextInt(files.size()));
+            assertEquals(expected.get(file), processor.processFileOrNull(file), file.getPath());
+          }
+        }
+        return null;
+      });
+    }
+    for (Future<Void> future : executor.invokeAll(tasks)) {
+      future.get();
+    }
+  }
+
+  @Test
+  @DisplayName("Concurrent collectLicenses calls don't mix up their files")
+  void concurrentCollectLicenses(@TempDir File outputs) throws Exception {
+    var barrier = new CyclicBarrier(THREADS);
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      var caseName = String.format("case_%02d", t % 4 + 1);
+      var output = new File(outputs, "output-" + t);
+      var options = new ScanOptions().workers(t % 2 == 0 ? 1 : 3);
+      tasks.add(() -> {
+        barrier.await();
+        for (int i = 0; i < ITERATIONS / 20; i++) {
+          LicenseReader.collectLicenses(new File(getDirectory(caseName), "input"), output, options);
+          assertLinesMatch(sortedLines(new File(getDirectory(caseName), "expected")), sortedLines(output));
+        }
+        return null;
+      });
+    }
+    for (Future<Void> future : executor.invokeAll(tasks)) {
+      future.get();
+    }
+  }
+
+  private static List<String> sortedLines(File file) throws IOException {
+    return Files.readAllLines(file.toPath()).stream().sorted().collect(Collectors.toList());
+  }
+}
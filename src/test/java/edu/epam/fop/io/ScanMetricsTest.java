@@ -0,0 +1,134 @@
+package edu.epam.fop.io;
+
+import static edu.epam.fop.io.TestFiles.getDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Scan metrics")
+class ScanMetricsTest {
+
+  @TempDir
+  File tmp;
+
+  @ParameterizedTest(name = "With {0} workers")
+  @ValueSource(ints = {1, 4})
+  @DisplayName("Every file, directory and output line is accounted for")
+  void countsAddUp(int workers) throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var output = new File(tmp, "output");
+    var metrics = new ScanMetrics();
+    LicenseReader.collectLicenses(root, output, new ScanOptions().workers(workers).listener(metrics));
+
+    assertEquals(Files.readAllLines(output.toPath()).size(), metrics.getLicenses());
+    assertEquals(metrics.getFilesScanned(), metrics.getLicenses() + metrics.getNonLicenses());
+    assertEquals(0, metrics.getParseFailures());
+    assertTrue(metrics.getDirectoriesListed() > 1);
+    assertTrue(metrics.getCharsRead() > 0);
+    assertEquals(Files.size(output.toPath()), metrics.getOutputChars());
+    assertTrue(metrics.getFileLatencyMaxMicros() >= metrics.getFileLatencyP50Micros());
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @ValueSource(strings = {"sequential", "checkpointed", "parallel", "pipelined", "sharded"})
+  @DisplayName("The scan is reported finished once its output is complete and in place")
+  void finishedAfterOutput(String scan) throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var output = new File(tmp, "output");
+    var options = switch (scan) {
+      case "checkpointed" -> new ScanOptions().checkpoint(new File(tmp, "checkpoint"));
+      case "parallel" -> new ScanOptions().workers(4).atomicOutput(true);
+      case "pipelined" -> new ScanOptions().workers(4).pipeline(8);
+      case "sharded" -> new ScanOptions().workers(4).shardedOutput(true);
+      default -> new ScanOptions().atomicOutput(true);
+    };
+    var lengths = new ArrayList<Long>();
+    LicenseReader.collectLicenses(root, output, options.formatter(LicenseFormatter.CSV).listener(new ScanListener() {
+      @Override
+      public void scanFinished(ScanReport report, long nanos) {
+        lengths.add(output.length());
+      }
+    }));
+    assertEquals(List.of(output.length()), lengths);
+  }
+
+  @Test
+  @DisplayName("A pipelined scan reports how its stages kept up")
+  void pipelineStats() throws IOException {
+    var root = new File(getDirectory("case_04"), "input");
+    var stats = new PipelineStats[1];
+    var listener = new ScanListener() {
+      @Override
+      public void pipelineFinished(PipelineStats pipelineStats) {
+        stats[0] = pipelineStats;
+      }
+    };
+    LicenseReader.collectLicenses(root, new File(tmp, "output"),
+        new ScanOptions().workers(2).pipeline(3).listener(listener));
+
+    assertEquals(4, stats[0].queueDepth());
+    assertEquals(2, stats[0].parsers());
+    assertTrue(stats[0].maxParseBacklog() >= 1 && stats[0].maxParseBacklog() <= 4);
+    assertTrue(stats[0].writerIdles() >= 0 && stats[0].walkerStallNanos() >= 0);
+  }
+
+  @Test
+  @DisplayName("Cache hits and parse failures are counted by kind")
+  void cacheHitsAndFailures() throws IOException {
+    var root = new File(tmp, "input");
+    assertTrue(root.mkdir());
+    Files.copy(new File(getDirectory("case_01"), "input/library_01").toPath(), new File(root, "library").toPath());
+    Files.copy(new File(getDirectory("invalid_licenses"), "missing_issued_by").toPath(), new File(root, "broken").toPath());
+    var options = new ScanOptions().incremental(new File(tmp, "cache")).listener(new ScanMetrics());
+    LicenseReader.collectLicenses(root, new File(tmp, "output"), options);
+    var metrics = new ScanMetrics();
+    LicenseReader.collectLicenses(root, new File(tmp, "output"), options.listener(metrics));
+
+    assertEquals(2, metrics.getCacheHits());
+    assertEquals(1, metrics.getLicenses());
+    assertEquals("MISSING_PROPERTY=1", metrics.getParseFailuresByReason());
+    metrics.reset();
+    assertEquals(0, metrics.getFilesScanned());
+  }
+
+  @Test
+  @DisplayName("Metrics can be watched over JMX")
+  void registersAsMBean() throws Exception {
+    var metrics = new ScanMetrics();
+    var server = ManagementFactory.getPlatformMBeanServer();
+    var name = new ObjectName("edu.epam.fop.io:type=ScanMetrics,name=test");
+    server.registerMBean(metrics, name);
+    try {
+      LicenseReader.collectLicenses(new File(getDirectory("case_01"), "input"), new File(tmp, "output"),
+          new ScanOptions().listener(metrics));
+      assertEquals(2L, server.getAttribute(name, "Licenses"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+
+  @Test
+  @DisplayName("Histogram percentiles are bucket bounds")
+  void histogram() {
+    var histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1_000L);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(100_000, histogram.getMax());
+    assertEquals(65_535, histogram.percentile(0.5));
+    assertEquals(100_000, histogram.percentile(0.99));
+  }
+}
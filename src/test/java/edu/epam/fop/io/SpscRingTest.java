@@ -0,0 +1,54 @@
+package edu.epam.fop.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SpscRingTest {
+
+  @Test
+  @DisplayName("The ring is bounded and keeps the order of its items")
+  void boundedFifo() {
+    var ring = new SpscRing<Integer>(3);
+    assertEquals(4, ring.capacity());
+    for (int i = 0; i < 4; i++) {
+      assertTrue(ring.offer(i));
+    }
+    assertFalse(ring.offer(4));
+    assertEquals(0, ring.poll());
+    assertTrue(ring.offer(4));
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(i, ring.poll());
+    }
+    assertNull(ring.poll());
+  }
+
+  @Test
+  @DisplayName("Items cross threads complete and in order")
+  void producerAndConsumer() throws InterruptedException {
+    var ring = new SpscRing<Integer>(16);
+    int count = 50_000;
+    var producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        while (!ring.offer(i)) {
+          Thread.yield();
+        }
+      }
+    });
+    producer.start();
+    for (int expected = 0; expected < count; ) {
+      Integer item = ring.poll();
+      if (item == null) {
+        Thread.yield();
+      } else {
+        assertEquals(expected++, item);
+      }
+    }
+    producer.join();
+    assertNull(ring.poll());
+  }
+}
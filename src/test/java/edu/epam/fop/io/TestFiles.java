@@ -0,0 +1,25 @@
+package edu.epam.fop.io;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+// Fixtures shared by the tests
+final class TestFiles {
+
+  private TestFiles() {
+  }
+
+  // A directory of the test resources, e.g. case_01
+  static File getDirectory(String path) {
+    URL url = TestFiles.class.getClassLoader().getResource(path);
+    if (url == null) {
+      throw new IllegalStateException();
+    }
+    try {
+      return new File(url.toURI());
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}